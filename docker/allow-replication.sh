@@ -0,0 +1,3 @@
+#!/bin/bash
+# Lets java_db_replica stream WAL from this database (only runs when the data volume is first created)
+echo "host replication all all md5" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,36 @@
+package com.uni.projectmanager.benchmark;
+
+import com.uni.projectmanager.ProjectManagerApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application without a web server against an in-memory H2 database
+ * in PostgreSQL mode, so service and DAO benchmarks run the real Spring wiring.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraProperties) {
+        return new SpringApplicationBuilder(ProjectManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                // Skip application.properties: it expects DATABASE_URL and PostgreSQL-only driver settings
+                .properties("spring.config.name=benchmark")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        // The migrations are PostgreSQL-only; Hibernate creates the schema instead
+                        "spring.flyway.enabled=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=500",
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "spring.jpa.properties.hibernate.order_updates=true",
+                        "logging.level.root=WARN")
+                .properties(extraProperties)
+                .run();
+    }
+}
@@ -0,0 +1,88 @@
+package com.uni.projectmanager.benchmark;
+
+import com.uni.projectmanager.dao.ProductDAO;
+import com.uni.projectmanager.product.Product;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product insert throughput per id strategy, against an embedded PostgreSQL so that
+ * every sequence call is a real round trip. {@code pooled-lo:1} calls the sequence
+ * for every row; {@code pooled-lo:50} makes as many sequence calls as the previous
+ * {@code GenerationType.AUTO} mapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"pooled-lo:1", "pooled-lo:50", "pooled-lo:1000", "time-ordered"})
+    public String ids;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private ProductDAO productDAO;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        String[] strategy = ids.split(":");
+        context = BenchmarkContext.start(
+                "spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "spring.datasource.username=postgres",
+                "spring.datasource.password=postgres",
+                "spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=true",
+                "spring.jpa.properties.ids.strategy=" + strategy[0],
+                "spring.jpa.properties.ids.block-size=" + (strategy.length > 1 ? strategy[1] : "1000"),
+                "spring.jpa.properties.ids.node-id=1");
+        productDAO = context.getBean(ProductDAO.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    /** One row per transaction, as POST /api/products does. */
+    @Benchmark
+    public Product insert() {
+        Product product = newProducts(1).get(0);
+        productDAO.save(product);
+        return product;
+    }
+
+    /** Rows per second through JDBC batches, as the bulk endpoint writes them. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void insertBatch() {
+        transactionTemplate.executeWithoutResult(status -> productDAO.saveBatch(newProducts(BATCH)));
+    }
+
+    private static List<Product> newProducts(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(ThreadLocalRandom.current().nextDouble(1, 1000));
+            products.add(product);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,45 @@
+package com.uni.projectmanager.benchmark;
+
+import com.uni.projectmanager.security.JwtUtil;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private String token;
+    private JwtParser parser;
+
+    @Setup
+    public void setUp() {
+        token = JwtUtil.generateToken("bench@example.com");
+        parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(System.getenv("JWT_SECRET_KEY").getBytes()))
+                .build();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return JwtUtil.generateToken("bench@example.com");
+    }
+
+    @Benchmark
+    public String validateToken() {
+        return JwtUtil.validateToken(token);
+    }
+
+    // Baseline for validateToken: a full parse and signature check on every call
+    @Benchmark
+    public String validateTokenFullParse() {
+        return parser.parseClaimsJws(token).getBody().getSubject();
+    }
+}
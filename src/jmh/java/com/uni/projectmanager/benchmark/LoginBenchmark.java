@@ -0,0 +1,46 @@
+package com.uni.projectmanager.benchmark;
+
+import com.uni.projectmanager.user.User;
+import com.uni.projectmanager.user.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    @Param({"10"})
+    private int bcryptStrength;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("security.password.bcrypt-strength=" + bcryptStrength);
+        userService = context.getBean(UserService.class);
+        userService.createUser(new User("Bench User", "bench@example.com", "password123"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> login() {
+        return userService.login("bench@example.com", "password123");
+    }
+
+    @Benchmark
+    public Optional<User> loginWrongPassword() {
+        return userService.login("bench@example.com", "wrong-password");
+    }
+}
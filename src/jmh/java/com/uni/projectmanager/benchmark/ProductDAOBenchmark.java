@@ -0,0 +1,93 @@
+package com.uni.projectmanager.benchmark;
+
+import com.uni.projectmanager.dao.ProductDAO;
+import com.uni.projectmanager.product.Product;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductDAOBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int BATCH = 100;
+
+    private ConfigurableApplicationContext context;
+    private ProductDAO productDAO;
+    private TransactionTemplate transactionTemplate;
+    // Ids of the seeded rows; with time-ordered ids or pooled-lo blocks they are not contiguous
+    private long[] ids;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        productDAO = context.getBean(ProductDAO.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        ids = new long[ROWS];
+        for (int i = 0; i < ROWS; i += BATCH) {
+            int from = i;
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Product> products = newProducts(BATCH);
+                productDAO.saveBatch(products);
+                for (int j = 0; j < BATCH; j++) {
+                    ids[from + j] = products.get(j).getId();
+                }
+            });
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        return productDAO.findById(randomId());
+    }
+
+    @Benchmark
+    public List<Product> findPage() {
+        return productDAO.findPage(randomId(), 50);
+    }
+
+    @Benchmark
+    public Product save() {
+        Product product = newProducts(1).get(0);
+        productDAO.save(product);
+        return product;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void saveBatch() {
+        transactionTemplate.executeWithoutResult(status -> productDAO.saveBatch(newProducts(BATCH)));
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private static List<Product> newProducts(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(ThreadLocalRandom.current().nextDouble(1, 1000));
+            products.add(product);
+        }
+        return products;
+    }
+}
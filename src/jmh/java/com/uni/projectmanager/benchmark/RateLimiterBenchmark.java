@@ -0,0 +1,46 @@
+package com.uni.projectmanager.benchmark;
+
+import com.uni.projectmanager.security.RateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the per-request rate limit check. Run with {@code -t 8} to see contention
+ * on a single hot client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int CLIENTS = 100_000;
+
+    private RateLimiter limiter;
+    private String[] clients;
+
+    @Setup
+    public void setUp() {
+        // High enough that requests are admitted, which is the common and slower path
+        limiter = new RateLimiter(1_000_000, 1_000_000_000);
+        clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "sub:user" + i + "@example.com";
+            limiter.tryAcquire(clients[i]);
+        }
+    }
+
+    @Benchmark
+    public long sameClient() {
+        return limiter.tryAcquire(clients[0]);
+    }
+
+    @Benchmark
+    public long manyClients() {
+        return limiter.tryAcquire(clients[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+}
@@ -0,0 +1,87 @@
+package com.uni.projectmanager.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.uni.projectmanager.product.Product;
+import com.uni.projectmanager.user.User;
+import com.uni.projectmanager.web.CatalogProtobufHttpMessageConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the response formats the controllers can negotiate. Payload sizes are
+ * printed once per trial, since JMH itself only reports time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private List<Product> products;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        // Same defaults as the ObjectMappers Spring Boot configures for the controllers
+        objectMapper = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        products = new ArrayList<>(size);
+        users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setName("Product " + i);
+            product.setPrice(i * 1.5);
+            products.add(product);
+
+            User user = new User("User " + i, "user" + i + "@example.com", "$2a$10$abcdefghijklmnopqrstuv");
+            user.setId((long) i);
+            users.add(user);
+        }
+        try {
+            System.out.printf("%n%s payload for %d items: products %d bytes, users %d bytes%n",
+                    format, size, serialize(products).length, serialize(users).length);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeProducts() throws Exception {
+        return serialize(products);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws Exception {
+        return serialize(users);
+    }
+
+    private byte[] serialize(List<?> values) throws IOException {
+        if (format.equals("protobuf")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            CatalogProtobufHttpMessageConverter.write(values, out);
+            return out.toByteArray();
+        }
+        return objectMapper.writeValueAsBytes(values);
+    }
+}
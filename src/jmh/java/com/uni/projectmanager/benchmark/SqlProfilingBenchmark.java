@@ -0,0 +1,82 @@
+package com.uni.projectmanager.benchmark;
+
+import com.uni.projectmanager.dao.ProductDAO;
+import com.uni.projectmanager.datasource.SqlProfile;
+import com.uni.projectmanager.product.Product;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the JDBC profiling proxies on a point read and on a page read: {@code off}
+ * without them, {@code idle} with them but no profile open (background reads such as
+ * snapshot rebuilds), {@code profiled} inside a profile, as in an {@code /api} request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlProfilingBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    @Param({"off", "idle", "profiled"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+    private ProductDAO productDAO;
+    private long firstId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("sql.profiling.enabled=" + !mode.equals("off"));
+        productDAO = context.getBean(ProductDAO.class);
+        List<Product> products = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(i + 1.0);
+            products.add(product);
+        }
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class))
+                .executeWithoutResult(status -> productDAO.saveBatch(products));
+        firstId = products.get(0).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        SqlProfile profile = mode.equals("profiled") ? SqlProfile.open() : null;
+        try {
+            return productDAO.findById(firstId);
+        } finally {
+            if (profile != null) {
+                profile.close();
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Product> findPage() {
+        SqlProfile profile = mode.equals("profiled") ? SqlProfile.open() : null;
+        try {
+            return productDAO.findPage(firstId - 1, 500);
+        } finally {
+            if (profile != null) {
+                profile.close();
+            }
+        }
+    }
+}
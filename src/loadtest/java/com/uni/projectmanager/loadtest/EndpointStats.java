@@ -0,0 +1,48 @@
+package com.uni.projectmanager.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and error count for one endpoint. Latencies are measured from
+ * the request's scheduled start, not from when it was actually sent.
+ */
+class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    void record(long latencyNanos, boolean success) {
+        latency.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    long count() {
+        return latency.getTotalCount();
+    }
+
+    Map<String, Object> summary(double durationSeconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", latency.getTotalCount());
+        summary.put("errors", errors.sum());
+        summary.put("throughputPerSecond", latency.getTotalCount() / durationSeconds);
+        summary.put("p50Millis", millis(latency.getValueAtPercentile(50)));
+        summary.put("p99Millis", millis(latency.getValueAtPercentile(99)));
+        summary.put("p999Millis", millis(latency.getValueAtPercentile(99.9)));
+        summary.put("maxMillis", millis(latency.getMaxValue()));
+        return summary;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
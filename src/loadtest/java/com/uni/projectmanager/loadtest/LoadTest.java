@@ -0,0 +1,316 @@
+package com.uni.projectmanager.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.uni.projectmanager.ProjectManagerApplication;
+import com.uni.projectmanager.dao.ProductDAO;
+import com.uni.projectmanager.product.Product;
+import com.uni.projectmanager.user.User;
+import com.uni.projectmanager.user.UserService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load generator. Boots the application against an embedded PostgreSQL,
+ * seeds it, then drives a weighted mix of requests over real HTTP at a fixed
+ * arrival rate.
+ *
+ * <p>Requests are scheduled on a fixed timeline (request i is due at start + i / rate)
+ * and latency is measured from that due time. When the server stalls, the requests
+ * that should have been sent in the meantime are charged for the wait, so the
+ * histograms do not suffer from coordinated omission.
+ *
+ * <p>Runs once for every combination of {@code load.modes} (platform, virtual request
+ * threads) and {@code load.clients}, and writes all summaries to
+ * {@code target/load-test-results.json}.
+ */
+public class LoadTest {
+
+    enum Operation {
+        LIST, GET, CREATE, UPDATE, DELETE, LOGIN
+    }
+
+    private static final String LOGIN_EMAIL = "loadtest@example.com";
+    private static final String LOGIN_PASSWORD = "password123";
+
+    private final Map<Operation, Integer> mix;
+    private final int totalWeight;
+    private final double rate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int productCount;
+
+    private HttpClient httpClient;
+    private String baseUrl;
+    // Ids of the seeded products; with time-ordered ids or pooled-lo blocks they are not contiguous
+    private long[] productIds;
+    private int runs;
+    private final ConcurrentLinkedQueue<Long> createdIds = new ConcurrentLinkedQueue<>();
+
+    LoadTest(Map<Operation, Integer> mix, double rate, Duration warmup, Duration duration, int productCount) {
+        this.mix = mix;
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.rate = rate;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.productCount = productCount;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTest loadTest = new LoadTest(
+                parseMix(System.getProperty("load.mix", "list=20,get=50,create=10,update=10,delete=5,login=5")),
+                Double.parseDouble(System.getProperty("load.rate", "1000")),
+                Duration.ofSeconds(Long.parseLong(System.getProperty("load.warmup", "10"))),
+                Duration.ofSeconds(Long.parseLong(System.getProperty("load.duration", "30"))),
+                Integer.parseInt(System.getProperty("load.products", "10000")));
+        String[] modes = System.getProperty("load.modes", "platform").split(",");
+        String[] clientLevels = System.getProperty("load.clients", "100").split(",");
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            for (String mode : modes) {
+                for (String clients : clientLevels) {
+                    String run = mode.trim() + "-" + clients.trim();
+                    System.out.println("=== " + run);
+                    Map<String, Object> summary = loadTest.run(postgres, "virtual".equals(mode.trim()), Integer.parseInt(clients.trim()));
+                    results.put(run, summary);
+                    print(summary);
+                }
+            }
+        }
+
+        File output = new File(System.getProperty("load.output", "target/load-test-results.json"));
+        output.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, results);
+        System.out.println("Results written to " + output);
+    }
+
+    Map<String, Object> run(EmbeddedPostgres postgres, boolean virtualThreads, int clients) throws Exception {
+        try (ConfigurableApplicationContext context = startApplication(postgres, virtualThreads)) {
+            seed(context);
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            drive(clients, warmup, new EnumMap<>(Operation.class));
+            Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+            long started = System.nanoTime();
+            drive(clients, duration, stats);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("virtualThreads", virtualThreads);
+            summary.put("clients", clients);
+            summary.put("targetRatePerSecond", rate);
+            summary.put("durationSeconds", seconds);
+            for (Map.Entry<Operation, EndpointStats> entry : stats.entrySet()) {
+                summary.put(entry.getKey().name().toLowerCase(), entry.getValue().summary(seconds));
+            }
+            return summary;
+        } finally {
+            createdIds.clear();
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication(EmbeddedPostgres postgres, boolean virtualThreads) throws SQLException {
+        // Every run starts from an empty database with the production schema and indexes
+        String database = "loadtest_" + (++runs);
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + database);
+        }
+        // Command-line arguments take precedence over application.properties
+        return new SpringApplicationBuilder(ProjectManagerApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", database),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--spring.flyway.enabled=true",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--server.tomcat.max-connections=20000",
+                // Every simulated client shares one address, so per-client limits would throttle the whole run
+                "--security.rate-limit.enabled=false",
+                "--logging.level.root=WARN");
+    }
+
+    private void seed(ConfigurableApplicationContext context) {
+        ProductDAO productDAO = context.getBean(ProductDAO.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        productIds = new long[productCount];
+        for (int offset = 0; offset < productCount; offset += 500) {
+            int from = offset;
+            int batchSize = Math.min(500, productCount - offset);
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Product> products = new ArrayList<>(batchSize);
+                for (int i = 0; i < batchSize; i++) {
+                    products.add(product("Seed Product " + i, ThreadLocalRandom.current().nextDouble(1, 1000)));
+                }
+                productDAO.saveBatch(products);
+                for (int i = 0; i < batchSize; i++) {
+                    productIds[from + i] = products.get(i).getId();
+                }
+            });
+        }
+        context.getBean(UserService.class).createUser(new User("Load Test", LOGIN_EMAIL, LOGIN_PASSWORD));
+    }
+
+    private void drive(int clients, Duration length, Map<Operation, EndpointStats> stats) {
+        for (Operation operation : mix.keySet()) {
+            stats.put(operation, new EndpointStats());
+        }
+        long intervalNanos = (long) (1_000_000_000L / rate);
+        long start = System.nanoTime();
+        long end = start + length.toNanos();
+        AtomicLong tickets = new AtomicLong();
+        // Virtual threads keep the generator itself from becoming the bottleneck at high client counts
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.execute(() -> {
+                    while (true) {
+                        long intended = start + tickets.getAndIncrement() * intervalNanos;
+                        if (intended >= end) {
+                            return;
+                        }
+                        long wait = intended - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        Operation operation = pick();
+                        boolean success = execute(operation);
+                        stats.get(operation).record(System.nanoTime() - intended, success);
+                    }
+                });
+            }
+        }
+    }
+
+    private Operation pick() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty request mix");
+    }
+
+    private boolean execute(Operation operation) {
+        try {
+            HttpRequest request = switch (operation) {
+                case LIST -> get("/api/products?size=50");
+                case GET -> get("/api/products/" + randomProductId());
+                case CREATE -> send("POST", "/api/products", productJson("Load Product"));
+                case UPDATE -> send("PUT", "/api/products/" + randomProductId(), productJson("Updated Product"));
+                case DELETE -> {
+                    Long id = createdIds.poll();
+                    // Only delete rows this run created, so reads of seeded products keep succeeding
+                    yield id == null
+                            ? send("POST", "/api/products", productJson("Load Product"))
+                            : send("DELETE", "/api/products/" + id, null);
+                }
+                case LOGIN -> send("POST", "/api/users/login",
+                        "{ \"email\": \"" + LOGIN_EMAIL + "\", \"password\": \"" + LOGIN_PASSWORD + "\" }");
+            };
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200 && "POST".equals(request.method()) && request.uri().getPath().equals("/api/products")) {
+                createdIds.add(idOf(response.body()));
+            }
+            return response.statusCode() < 400;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private long randomProductId() {
+        return productIds[ThreadLocalRandom.current().nextInt(productIds.length)];
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String json) {
+        HttpRequest.BodyPublisher body = json == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(json);
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .method(method, body)
+                .build();
+    }
+
+    private static String productJson(String name) {
+        return "{ \"name\": \"" + name + "\", \"price\": " + ThreadLocalRandom.current().nextInt(1, 1000) + " }";
+    }
+
+    private static long idOf(String productJson) {
+        int start = productJson.indexOf("\"id\":") + 5;
+        int end = start;
+        while (end < productJson.length() && Character.isDigit(productJson.charAt(end))) {
+            end++;
+        }
+        return Long.parseLong(productJson.substring(start, end));
+    }
+
+    private static Product product(String name, double price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        return product;
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.split("=");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        return weights;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> summary) {
+        System.out.printf("%-8s %9s %7s %10s %10s %10s %10s %10s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, Object> entry : summary.entrySet()) {
+            if (entry.getValue() instanceof Map) {
+                Map<String, Object> stats = (Map<String, Object>) entry.getValue();
+                System.out.printf("%-8s %9d %7d %10.1f %10.2f %10.2f %10.2f %10.2f%n", entry.getKey(),
+                        stats.get("count"), stats.get("errors"), stats.get("throughputPerSecond"),
+                        stats.get("p50Millis"), stats.get("p99Millis"), stats.get("p999Millis"), stats.get("maxMillis"));
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.uni.projectmanager.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+
+/**
+ * Measures time to first request of the packaged application: from launching the
+ * JVM until {@code GET /api/products} first answers 200. Each variant adds one
+ * fast-startup step to the previous one (the {@code fast-startup} profile, Spring
+ * AOT, then a CDS archive over the extracted jar), and variants take turns in every
+ * round so that drift on the machine affects them all alike.
+ *
+ * <p>The AOT variants need a jar built with {@code -Pfast-startup}; they are skipped
+ * otherwise. Results go to {@code target/startup-results.json}.
+ */
+public class StartupBenchmark {
+
+    private static final String AOT_INITIALIZER = "BOOT-INF/classes/com/uni/projectmanager/ProjectManagerApplication__ApplicationContextInitializer.class";
+
+    record Variant(String name, File jar, List<String> jvmArguments, List<String> arguments) {
+    }
+
+    private final String java = System.getProperty("java.home") + "/bin/java";
+    private final File workDir;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private List<String> databaseArguments;
+
+    StartupBenchmark(File workDir) {
+        this.workDir = workDir;
+    }
+
+    public static void main(String[] args) throws Exception {
+        File jar = new File(System.getProperty("startup.jar", "target/projectmanager-0.0.1-SNAPSHOT.jar"));
+        int runs = Integer.parseInt(System.getProperty("startup.runs", "5"));
+        File output = new File(System.getProperty("startup.output", "target/startup-results.json"));
+        StartupBenchmark benchmark = new StartupBenchmark(new File(output.getParentFile(), "startup"));
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            benchmark.databaseArguments = List.of(
+                    "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                    "--spring.datasource.username=postgres",
+                    "--spring.datasource.password=postgres");
+            List<Variant> variants = benchmark.prepare(jar);
+
+            Map<String, List<Long>> timings = new LinkedHashMap<>();
+            for (int round = 1; round <= runs; round++) {
+                for (Variant variant : variants) {
+                    long millis = benchmark.timeToFirstRequest(variant, variant.name() + "-" + round);
+                    timings.computeIfAbsent(variant.name(), name -> new ArrayList<>()).add(millis);
+                    System.out.printf("round %d %-24s %6d ms%n", round, variant.name(), millis);
+                }
+            }
+
+            System.out.printf("%n%-24s %8s %8s %8s%n", "variant", "median", "min", "max");
+            for (Map.Entry<String, List<Long>> entry : timings.entrySet()) {
+                List<Long> sorted = entry.getValue().stream().sorted().toList();
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("medianMillis", sorted.get(sorted.size() / 2));
+                summary.put("minMillis", sorted.get(0));
+                summary.put("maxMillis", sorted.get(sorted.size() - 1));
+                summary.put("runsMillis", entry.getValue());
+                results.put(entry.getKey(), summary);
+                System.out.printf("%-24s %8d %8d %8d%n", entry.getKey(), sorted.get(sorted.size() / 2), sorted.get(0), sorted.get(sorted.size() - 1));
+            }
+        }
+
+        output.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, results);
+        System.out.println("Results written to " + output);
+    }
+
+    /** Creates the schema, extracts the jar and trains the CDS archive; returns the variants to time. */
+    List<Variant> prepare(File jar) throws Exception {
+        workDir.mkdirs();
+        List<String> profile = List.of("--spring.profiles.active=fast-startup");
+        List<Variant> variants = new ArrayList<>();
+        variants.add(new Variant("baseline", jar, List.of(), List.of()));
+        variants.add(new Variant("fast-startup-profile", jar, List.of(), profile));
+
+        // Migrate once, as a deploy would; every variant then starts against the finished schema
+        timeToFirstRequest(new Variant("migrate", jar, List.of(), List.of("--spring.flyway.enabled=true")), "migrate");
+
+        boolean aot;
+        try (JarFile jarFile = new JarFile(jar)) {
+            aot = jarFile.getEntry(AOT_INITIALIZER) != null;
+        }
+        List<String> aotArguments = aot ? List.of("-Dspring.aot.enabled=true") : List.of();
+        if (aot) {
+            variants.add(new Variant("fast-startup-aot", jar, aotArguments, profile));
+        } else {
+            System.out.println("No AOT classes in " + jar + "; build it with -Pfast-startup to time the AOT variants");
+        }
+
+        // CDS only covers classes loaded from plain jars on the class path, so it needs the extracted layout
+        File extracted = new File(workDir, "extracted");
+        exec(List.of(java, "-Djarmode=tools", "-jar", jar.getPath(), "extract", "--force", "--destination", extracted.getPath()), "extract");
+        File extractedJar = new File(extracted, jar.getName());
+        File archive = new File(workDir, "application.jsa");
+        List<String> training = new ArrayList<>(List.of(java, "-XX:ArchiveClassesAtExit=" + archive.getPath(), "-Dspring.context.exit=onRefresh"));
+        training.addAll(aotArguments);
+        training.addAll(List.of("-jar", extractedJar.getPath()));
+        training.addAll(profile);
+        training.addAll(databaseArguments);
+        exec(training, "cds-training");
+
+        List<String> cdsArguments = new ArrayList<>(aotArguments);
+        cdsArguments.add("-XX:SharedArchiveFile=" + archive.getPath());
+        variants.add(new Variant(aot ? "fast-startup-aot-cds" : "fast-startup-cds", extractedJar, cdsArguments, profile));
+        return variants;
+    }
+
+    long timeToFirstRequest(Variant variant, String run) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(variant.jvmArguments());
+        command.addAll(List.of("-jar", variant.jar().getPath(), "--server.port=" + port));
+        command.addAll(variant.arguments());
+        command.addAll(databaseArguments);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products?size=1"))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        long started = System.nanoTime();
+        Process process = start(command, run);
+        try {
+            long deadline = started + TimeUnit.MINUTES.toNanos(2);
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(run + " exited with " + process.exitValue() + "; see " + log(run));
+                }
+                try {
+                    if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(run + " did not answer within 2 minutes; see " + log(run));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private void exec(List<String> command, String run) throws Exception {
+        int exitCode = start(command, run).waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException(run + " exited with " + exitCode + "; see " + log(run));
+        }
+    }
+
+    private Process start(List<String> command, String run) throws IOException {
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log(run))
+                .start();
+    }
+
+    private File log(String run) {
+        return new File(workDir, run + ".log");
+    }
+}
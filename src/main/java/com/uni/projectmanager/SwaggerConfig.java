@@ -2,6 +2,7 @@ package com.uni.projectmanager;
 
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -16,4 +17,12 @@ public class SwaggerConfig {
                         .version("1.0")
                         .description("API documentation for the JavaTest application"));
     }
+
+    // With spring.main.lazy-initialization (fast-startup profile) only the API docs wait for their
+    // first request; everything else is still created at startup, so the first API call pays nothing extra
+    @Bean
+    static LazyInitializationExcludeFilter eagerExceptApiDocs() {
+        return (beanName, beanDefinition, beanType) -> beanType == null
+                || !(beanType == SwaggerConfig.class || beanType == OpenAPI.class || beanType.getName().startsWith("org.springdoc."));
+    }
 }
@@ -0,0 +1,89 @@
+package com.uni.projectmanager.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into one: the first caller runs the
+ * loader, callers arriving while it runs wait for and share its result or
+ * exception. Nothing is kept once the load finishes, so this is not a cache.
+ *
+ * <p>The loader runs outside any map lock, so a slow query does not block loads
+ * of other keys or pin a virtual thread's carrier. Results are shared between
+ * callers and must not be modified.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loads;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        loads = loadCounter(name, meterRegistry);
+        coalesced = coalescedCounter(name, meterRegistry);
+    }
+
+    /** Loads that actually ran, tagged with the read path's name. */
+    public static Counter loadCounter(String name, MeterRegistry meterRegistry) {
+        return Counter.builder("singleflight.loads")
+                .description("Loads that went to the database")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /** Requests that shared another request's in-flight load, tagged with the read path's name. */
+    public static Counter coalescedCounter(String name, MeterRegistry meterRegistry) {
+        return Counter.builder("singleflight.coalesced")
+                .description("Requests served by joining an identical in-flight load")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        loads.increment();
+        try {
+            V value = loader.get();
+            created.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            // Waiters must be released whatever happens to the load
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * Stops later callers from joining a load that is already running. Writers call
+     * this after committing, since that load may have read the row before the write.
+     */
+    public void forget(K key) {
+        if (key != null) {
+            inFlight.remove(key);
+        }
+    }
+
+    public long coalescedCount() {
+        return (long) coalesced.count();
+    }
+
+    public long loadCount() {
+        return (long) loads.count();
+    }
+}
@@ -1,12 +1,33 @@
 package com.uni.projectmanager.dao;
 
 import com.uni.projectmanager.product.Product;
+import com.uni.projectmanager.product.ProductSearch;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ProductDAO {
     void save(Product product);
     Optional<Product> findById(Long id);
+    Optional<Long> findVersionById(Long id);
+    List<Product> findAllById(Collection<Long> ids);
+    void saveBatch(List<Product> products);
+    Optional<Product> update(Long id, Long expectedVersion, Product changes, boolean partial);
     List<Product> findAll();
+    List<Product> findPage(Long afterId, int limit);
+    List<Product> search(ProductSearch search);
+    long estimateCount();
+    void forEach(Consumer<Product> action);
+    void forEachInRange(Long fromId, Long toId, Consumer<Product> action);
+    void forEachPrice(PriceVisitor action);
+    Long findMinId();
+    Long findMaxId();
     void deleteById(Long id);
+
+    // One priced product, as the price index keeps it
+    @FunctionalInterface
+    interface PriceVisitor {
+        void visit(long id, double price, long version);
+    }
 }
\ No newline at end of file
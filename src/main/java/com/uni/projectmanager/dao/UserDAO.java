@@ -7,7 +7,12 @@ import java.util.Optional;
 public interface UserDAO {
     User save(User user);
     Optional<User> findById(Long id);
+    Optional<Long> findVersionById(Long id);
+    Optional<User> update(Long id, Long expectedVersion, User changes, boolean partial);
+    boolean replacePassword(Long id, String expectedPassword, String newPassword);
     List<User> findAll();
+    List<User> findPage(Long afterId, int limit);
+    long estimateCount();
     void deleteById(Long id);
     Optional<User> findByEmail(String email);
 }
\ No newline at end of file
@@ -3,33 +3,178 @@ package com.uni.projectmanager.dao.impl;
 import com.uni.projectmanager.dao.ProductDAO;
 import com.uni.projectmanager.product.Product;
 import com.uni.projectmanager.product.ProductRepository;
+import com.uni.projectmanager.product.ProductSearch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
+@Timed(value = "dao", histogram = true)
 public class ProductDAOImpl implements ProductDAO {
 
     @Autowired
     private ProductRepository productRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
     public void save(Product product) {
         productRepository.save(product);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Product> findById(Long id) {
         return productRepository.findById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersionById(Long id) {
+        return Optional.ofNullable(productRepository.findVersionById(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Product> findAllById(Collection<Long> ids) {
+        return productRepository.findAllById(ids);
+    }
+
+    /**
+     * Persists new products and flushes changes to managed ones in one go, so
+     * Hibernate can group the statements into JDBC batches. Must run inside a
+     * caller's transaction; the persistence context is cleared afterwards.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void saveBatch(List<Product> products) {
+        for (Product product : products) {
+            if (product.getId() == null) {
+                entityManager.persist(product);
+            } else if (!entityManager.contains(product)) {
+                entityManager.merge(product);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Writes the product's name and price in one conditional statement; with
+     * {@code partial} set, null fields are left unchanged.
+     */
+    @Override
+    @Transactional
+    public Optional<Product> update(Long id, Long expectedVersion, Product changes, boolean partial) {
+        VersionedUpdate update = new VersionedUpdate("products");
+        if (partial) {
+            update.setIfNotNull("name", changes.getName()).setIfNotNull("price", changes.getPrice());
+        } else {
+            update.set("name", changes.getName()).set("price", changes.getPrice());
+        }
+        return update.execute(entityManager, Product.class, id, expectedVersion);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Product> findAll() {
         return productRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Product> findPage(Long afterId, int limit) {
+        if (afterId == null) {
+            return productRepository.findAllByOrderByIdAsc(Limit.of(limit));
+        }
+        return productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Product> search(ProductSearch search) {
+        Specification<Product> filter = Specification.where(null);
+        if (search.getName() != null) {
+            filter = filter.and(ProductRepository.nameLike(search.getName(), search.getNameMatch() == ProductSearch.NameMatch.PREFIX));
+        }
+        if (search.getMinPrice() != null) {
+            filter = filter.and(ProductRepository.priceAtLeast(search.getMinPrice()));
+        }
+        if (search.getMaxPrice() != null) {
+            filter = filter.and(ProductRepository.priceAtMost(search.getMaxPrice()));
+        }
+        return productRepository.findBy(filter, query -> query.sortBy(search.getSort()).limit(search.getLimit()).all());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long estimateCount() {
+        Long estimate = productRepository.estimateRowCount();
+        // reltuples is -1 until the table has been analyzed at least once
+        if (estimate == null || estimate < 0) {
+            return productRepository.count();
+        }
+        return estimate;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEach(Consumer<Product> action) {
+        try (Stream<Product> products = productRepository.streamAll()) {
+            products.forEach(product -> visit(product, action));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachInRange(Long fromId, Long toId, Consumer<Product> action) {
+        try (Stream<Product> products = productRepository.streamByIdRange(fromId, toId)) {
+            products.forEach(product -> visit(product, action));
+        }
+    }
+
+    /**
+     * Visits every (id, price, version) row in price order without loading entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachPrice(PriceVisitor action) {
+        try (Stream<Object[]> rows = productRepository.streamPrices()) {
+            rows.forEach(row -> action.visit((Long) row[0], (Double) row[1], (Long) row[2]));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Long findMinId() {
+        return productRepository.findMinId();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Long findMaxId() {
+        return productRepository.findMaxId();
+    }
+
+    // Detach each row once it has been handled so the persistence context does not grow with the table
+    private void visit(Product product, Consumer<Product> action) {
+        action.accept(product);
+        entityManager.detach(product);
+    }
+
     @Override
     public void deleteById(Long id) {
         productRepository.deleteById(id);
@@ -3,39 +3,105 @@ package com.uni.projectmanager.dao.impl;
 import com.uni.projectmanager.dao.UserDAO;
 import com.uni.projectmanager.user.User;
 import com.uni.projectmanager.user.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
+@Timed(value = "dao", histogram = true)
 public class UserDAOImpl implements UserDAO {
 
     @Autowired
     private UserRepository userRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
     public User save(User user) {
         return userRepository.save(user);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersionById(Long id) {
+        return Optional.ofNullable(userRepository.findVersionById(id));
+    }
+
+    /**
+     * Writes the user's name and email in one conditional statement; with
+     * {@code partial} set, null fields are left unchanged. The password is only
+     * replaced when one is given and is expected to be hashed already.
+     */
+    @Override
+    @Transactional
+    public Optional<User> update(Long id, Long expectedVersion, User changes, boolean partial) {
+        VersionedUpdate update = new VersionedUpdate("users");
+        if (partial) {
+            update.setIfNotNull("name", changes.getName()).setIfNotNull("email", changes.getEmail());
+        } else {
+            update.set("name", changes.getName()).set("email", changes.getEmail());
+        }
+        update.setIfNotNull("password", changes.getPassword());
+        return update.execute(entityManager, User.class, id, expectedVersion);
+    }
+
+    /**
+     * Replaces the stored password only while it still equals {@code expectedPassword},
+     * without checking or incrementing the version. Returns whether it was replaced.
+     */
+    @Override
+    @Transactional
+    public boolean replacePassword(Long id, String expectedPassword, String newPassword) {
+        return userRepository.replacePassword(id, expectedPassword, newPassword) == 1;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<User> findAll() {
         return userRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findPage(Long afterId, int limit) {
+        if (afterId == null) {
+            return userRepository.findAllByOrderByIdAsc(Limit.of(limit));
+        }
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long estimateCount() {
+        Long estimate = userRepository.estimateRowCount();
+        // reltuples is -1 until the table has been analyzed at least once
+        if (estimate == null || estimate < 0) {
+            return userRepository.count();
+        }
+        return estimate;
+    }
+
     @Override
     public void deleteById(Long id) {
         userRepository.deleteById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
         return Optional.ofNullable(userRepository.findByEmail(email));
     }
@@ -0,0 +1,80 @@
+package com.uni.projectmanager.dao.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Builds a single {@code UPDATE ... SET ..., version = version + 1 WHERE id = ?
+ * [AND version = ?] RETURNING *} for a versioned table, so a write and its
+ * optimistic-lock check cost one round trip and the new row comes back with it.
+ * Uses PostgreSQL's {@code RETURNING}.
+ */
+final class VersionedUpdate {
+
+    private final String table;
+    private final Map<String, Object> columns = new LinkedHashMap<>();
+
+    VersionedUpdate(String table) {
+        this.table = table;
+    }
+
+    VersionedUpdate set(String column, Object value) {
+        columns.put(column, value);
+        return this;
+    }
+
+    VersionedUpdate setIfNotNull(String column, Object value) {
+        return value == null ? this : set(column, value);
+    }
+
+    /**
+     * Runs the update and returns the updated row, or empty when there is no row
+     * with that id. Must run inside a read-write transaction.
+     *
+     * @param expectedVersion the version the client last saw, or null to update unconditionally
+     * @throws ObjectOptimisticLockingFailureException when the row exists at another version
+     */
+    <T> Optional<T> execute(EntityManager entityManager, Class<T> type, Long id, Long expectedVersion) {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+        List<Object> values = new ArrayList<>();
+        for (Map.Entry<String, Object> column : columns.entrySet()) {
+            sql.append(column.getKey());
+            // Nulls are written inline; a bound null has no SQL type for the driver to send
+            if (column.getValue() == null) {
+                sql.append(" = NULL, ");
+            } else {
+                values.add(column.getValue());
+                sql.append(" = ?").append(values.size()).append(", ");
+            }
+        }
+        values.add(id);
+        sql.append("version = version + 1 WHERE id = ?").append(values.size());
+        if (expectedVersion != null) {
+            values.add(expectedVersion);
+            sql.append(" AND version = ?").append(values.size());
+        }
+        sql.append(" RETURNING *");
+
+        Query query = entityManager.createNativeQuery(sql.toString(), type);
+        for (int i = 0; i < values.size(); i++) {
+            query.setParameter(i + 1, values.get(i));
+        }
+        @SuppressWarnings("unchecked")
+        List<T> rows = query.getResultList();
+        if (!rows.isEmpty()) {
+            return Optional.of(rows.get(0));
+        }
+        // Only a failed update pays for the second query that tells "missing" from "stale"
+        if (expectedVersion != null && entityManager.find(type, id) != null) {
+            throw new ObjectOptimisticLockingFailureException(type, id);
+        }
+        return Optional.empty();
+    }
+}
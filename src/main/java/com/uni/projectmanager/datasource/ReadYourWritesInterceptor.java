@@ -0,0 +1,57 @@
+package com.uni.projectmanager.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uni.projectmanager.security.JwtAuthenticationFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Sends a client's reads to the primary for a short window after its last
+ * write, so it sees its own changes despite replication lag. Clients are
+ * identified as in {@link JwtAuthenticationFilter#clientKey(HttpServletRequest)};
+ * the window is tracked per instance.
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    private static final int MAX_TRACKED_CLIENTS = 100_000;
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesInterceptor(Duration window) {
+        recentWriters = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_CLIENTS)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String client = JwtAuthenticationFilter.clientKey(request);
+        if (isWrite(request)) {
+            // Recorded before the write, so a read racing the response cannot miss it
+            recentWriters.put(client, Boolean.TRUE);
+            RoutingContext.forcePrimary();
+        } else if (recentWriters.getIfPresent(client) != null) {
+            RoutingContext.forcePrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (isWrite(request)) {
+            // Restart the window from the end of a long write
+            recentWriters.put(JwtAuthenticationFilter.clientKey(request), Boolean.TRUE);
+        }
+        RoutingContext.clear();
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return method.equals("POST") || method.equals("PUT") || method.equals("PATCH") || method.equals("DELETE");
+    }
+}
@@ -0,0 +1,210 @@
+package com.uni.projectmanager.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections to read replicas, chosen round-robin or by fewest
+ * connections in use. Replicas that fail a connection attempt or a health check
+ * are skipped until a later health check passes; with no healthy replica, or
+ * when {@link RoutingContext#isPrimaryForced()}, connections come from the primary.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    public enum Selection {
+        ROUND_ROBIN, LEAST_CONNECTIONS;
+
+        public static Selection parse(String value) {
+            return valueOf(value.trim().replace('-', '_').toUpperCase());
+        }
+    }
+
+    // Replay lag in seconds; zero on a primary or on a replica that has replayed everything it received
+    private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery()"
+            + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Selection selection;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService healthChecker;
+
+    /**
+     * @param replicas replica data sources by name, in a stable order
+     * @param maxLag   replicas further behind than this are ejected; null disables the lag check
+     */
+    public ReplicaDataSource(DataSource primary, Map<String, DataSource> replicas, Selection selection, Duration maxLag) {
+        this.primary = primary;
+        this.selection = selection;
+        this.maxLag = maxLag;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!RoutingContext.isPrimaryForced()) {
+            for (int attempt = 0; attempt < replicas.size(); attempt++) {
+                Replica replica = choose();
+                if (replica == null) {
+                    break;
+                }
+                try {
+                    return replica.open();
+                } catch (SQLException e) {
+                    eject(replica, e.getMessage());
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    /**
+     * Checks every replica with a live query and, if configured, its replay lag;
+     * ejected replicas that pass are readmitted.
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                if (maxLag != null) {
+                    try (ResultSet lag = statement.executeQuery(LAG_QUERY)) {
+                        lag.next();
+                        double seconds = lag.getDouble(1);
+                        if (seconds * 1000 > maxLag.toMillis()) {
+                            eject(replica, "replication lag " + seconds + "s");
+                            continue;
+                        }
+                    }
+                } else {
+                    statement.execute("SELECT 1");
+                }
+                if (!replica.healthy) {
+                    log.info("Replica {} is healthy again", replica.name);
+                    replica.healthy = true;
+                }
+            } catch (SQLException e) {
+                eject(replica, e.getMessage());
+            }
+        }
+    }
+
+    public synchronized void startHealthChecks(Duration interval) {
+        if (healthChecker == null) {
+            healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-health-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops health checks and closes the replica pools; the primary is left open.
+     */
+    @Override
+    public synchronized void close() throws Exception {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    public boolean isHealthy(String name) {
+        return replicas.stream().anyMatch(replica -> replica.name.equals(name) && replica.healthy);
+    }
+
+    public List<String> getReplicaNames() {
+        return replicas.stream().map(replica -> replica.name).toList();
+    }
+
+    private Replica choose() {
+        int size = replicas.size();
+        // Rotating the starting point also spreads ties in the least-connections choice
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        Replica chosen = null;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            if (selection == Selection.ROUND_ROBIN) {
+                return replica;
+            }
+            if (chosen == null || replica.inUse.get() < chosen.inUse.get()) {
+                chosen = replica;
+            }
+        }
+        return chosen;
+    }
+
+    private void eject(Replica replica, String reason) {
+        if (replica.healthy) {
+            log.warn("Ejecting replica {}: {}", replica.name, reason);
+            replica.healthy = false;
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final AtomicInteger inUse = new AtomicInteger();
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        // Wraps the connection so closing it gives back its slot in the in-use count
+        private Connection open() throws SQLException {
+            Connection connection = dataSource.getConnection();
+            inUse.incrementAndGet();
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                            inUse.decrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
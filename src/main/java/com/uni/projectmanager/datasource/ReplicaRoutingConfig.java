@@ -0,0 +1,95 @@
+package com.uni.projectmanager.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Routes read-only transactions to the replicas in {@code database.replicas.urls}.
+ * The application data source is a lazy proxy over the primary pool: a
+ * transaction marked read-only before its first statement gets its connection
+ * from the {@link ReplicaDataSource} instead. Only active when replica URLs are set.
+ */
+@Configuration
+@ConditionalOnExpression("'${database.replicas.urls:}' != ''")
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+
+    @Value("${database.replicas.read-your-writes-window:PT5S}")
+    private Duration readYourWritesWindow;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaDataSource replicaDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${database.replicas.urls}") String[] urls,
+            @Value("${database.replicas.username:}") String username,
+            @Value("${database.replicas.password:}") String password,
+            @Value("${database.replicas.selection:round-robin}") String selection,
+            @Value("${database.replicas.max-lag:PT10S}") Duration maxLag,
+            @Value("${database.replicas.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${database.replicas.connection-timeout:PT2S}") Duration connectionTimeout,
+            @Value("${database.replicas.health-check-interval:PT5S}") Duration healthCheckInterval) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            String name = "replica-" + (replicas.size() + 1);
+            HikariConfig config = new HikariConfig();
+            config.setPoolName(name);
+            config.setJdbcUrl(url.trim());
+            config.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            config.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            config.setReadOnly(true);
+            config.setMaximumPoolSize(maximumPoolSize);
+            // A dead replica should fail over to the primary quickly rather than hold up the request
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(name, new HikariDataSource(config));
+        }
+        ReplicaDataSource replicaDataSource = new ReplicaDataSource(primaryDataSource, replicas,
+                ReplicaDataSource.Selection.parse(selection), maxLag.isZero() ? null : maxLag);
+        for (String name : replicaDataSource.getReplicaNames()) {
+            Gauge.builder("datasource.replica.healthy", replicaDataSource, r -> r.isHealthy(name) ? 1 : 0)
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        }
+        replicaDataSource.startHealthChecks(healthCheckInterval);
+        return replicaDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(readYourWritesWindow));
+    }
+}
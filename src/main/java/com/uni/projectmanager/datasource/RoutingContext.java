@@ -0,0 +1,39 @@
+package com.uni.projectmanager.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override that sends read-only transactions to the primary, used
+ * for read-your-writes and for reads that must not see replication lag.
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private RoutingContext() {
+    }
+
+    public static void forcePrimary() {
+        PRIMARY_FORCED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PRIMARY_FORCED.remove();
+    }
+
+    public static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get() != null;
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean alreadyForced = isPrimaryForced();
+        forcePrimary();
+        try {
+            return action.get();
+        } finally {
+            if (!alreadyForced) {
+                clear();
+            }
+        }
+    }
+}
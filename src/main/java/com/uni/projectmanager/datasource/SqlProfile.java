@@ -0,0 +1,103 @@
+package com.uni.projectmanager.datasource;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * SQL statements, rows and database time of one HTTP request. {@link SqlProfilingFilter}
+ * opens a profile on the request thread and leaves it in the {@value #REQUEST_ATTRIBUTE}
+ * request attribute; {@link SqlProfilingDataSource} adds every statement run on that
+ * thread while it is open. Statements run on other threads, such as worker pools and
+ * async dispatches, are not counted.
+ *
+ * <p>A JDBC batch counts as one statement, since it is one round trip. Rows are those
+ * updated, or read from result sets.
+ */
+public class SqlProfile {
+
+    public static final String REQUEST_ATTRIBUTE = "sql.profile";
+
+    // Distinct statement texts kept per request; later ones are still counted in the totals
+    private static final int MAX_DISTINCT_STATEMENTS = 100;
+
+    private static final ThreadLocal<SqlProfile> CURRENT = new ThreadLocal<>();
+
+    private final SqlProfile enclosing;
+    private final Map<String, Integer> executions = new LinkedHashMap<>();
+    private int statements;
+    private long rows;
+    private long nanos;
+
+    private SqlProfile(SqlProfile enclosing) {
+        this.enclosing = enclosing;
+    }
+
+    /**
+     * Starts a profile on this thread; statements also count towards any profile already
+     * open. Callers other than the filter, such as benchmarks, must {@link #close()} it.
+     */
+    public static SqlProfile open() {
+        SqlProfile profile = new SqlProfile(CURRENT.get());
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    public void close() {
+        if (enclosing == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(enclosing);
+        }
+    }
+
+    static SqlProfile current() {
+        return CURRENT.get();
+    }
+
+    void statementExecuted(String sql, long rows, long nanos) {
+        statements++;
+        this.rows += rows;
+        this.nanos += nanos;
+        if (executions.containsKey(sql) || executions.size() < MAX_DISTINCT_STATEMENTS) {
+            executions.merge(sql, 1, Integer::sum);
+        }
+        if (enclosing != null) {
+            enclosing.statementExecuted(sql, rows, nanos);
+        }
+    }
+
+    void rowsRead(long rows) {
+        this.rows += rows;
+        if (enclosing != null) {
+            enclosing.rowsRead(rows);
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public Duration getTime() {
+        return Duration.ofNanos(nanos);
+    }
+
+    /** How often each statement text ran, in order of first execution. */
+    public Map<String, Integer> getExecutions() {
+        return Collections.unmodifiableMap(executions);
+    }
+
+    @Override
+    public String toString() {
+        return statements + " statements, " + rows + " rows, " + getTime().toNanos() / 1_000_000.0 + " ms"
+                + executions.entrySet().stream()
+                        .map(e -> "\n  " + e.getValue() + "x " + e.getKey())
+                        .collect(Collectors.joining());
+    }
+}
@@ -0,0 +1,35 @@
+package com.uni.projectmanager.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the application data source in a {@link SqlProfilingDataSource}, so that
+ * {@link SqlProfilingFilter} can report the SQL of each request. With replicas this
+ * is the routing data source, so statements are counted wherever they run.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql.profiling.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlProfilingConfig {
+
+    // Static, as a post-processor must exist before the beans it processes
+    @Bean
+    public static BeanPostProcessor sqlProfilingDataSourcePostProcessor(
+            @Value("${sql.profiling.slow-statement-threshold:PT0.5S}") Duration slowStatementThreshold) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+                    return new SqlProfilingDataSource(dataSource, slowStatementThreshold);
+                }
+                return bean;
+            }
+        };
+    }
+}
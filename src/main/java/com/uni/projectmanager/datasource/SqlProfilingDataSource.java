@@ -0,0 +1,162 @@
+package com.uni.projectmanager.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Wraps the connections of a data source so that every statement executed through
+ * them is timed and added to the thread's {@link SqlProfile}, and statements slower
+ * than the threshold are logged with their SQL (not their parameters). Everything
+ * else, including {@code unwrap} to the driver's own connection, goes straight to the
+ * underlying objects.
+ *
+ * <p>Each statement execution costs a reflective call, which is small next to its
+ * database round trip. Result sets are only wrapped to count rows while a profile is
+ * open, so reads outside a profiled request, such as snapshot rebuilds and exports,
+ * fetch their rows without it. {@code SqlProfilingBenchmark} measures both.
+ */
+public class SqlProfilingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlProfilingDataSource.class);
+
+    private final long slowStatementNanos;
+
+    public SqlProfilingDataSource(DataSource target, Duration slowStatementThreshold) {
+        super(target);
+        this.slowStatementNanos = slowStatementThreshold.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return profiled(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return profiled(super.getConnection(username, password));
+    }
+
+    // Replaces the pool as the data source bean, so it also takes over closing it on shutdown
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection profiled(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            // prepareStatement and prepareCall carry the SQL; createStatement gets it on execute
+            if (result instanceof Statement statement) {
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                return profiled(statement, method.getReturnType(), sql);
+            }
+            return result;
+        });
+    }
+
+    private Object profiled(Statement statement, Class<?> type, String preparedSql) {
+        return proxy(type, (proxy, method, args) -> {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                Object result = invoke(statement, method, args);
+                return name.equals("getResultSet") ? profiled((ResultSet) result) : result;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text
+                    : preparedSql != null ? preparedSql : "(batch)";
+            long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = invoke(statement, method, args);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                if (nanos >= slowStatementNanos) {
+                    log.warn("Slow SQL statement took {} ms: {}", nanos / 1_000_000, sql);
+                }
+                SqlProfile profile = SqlProfile.current();
+                if (profile != null) {
+                    // Updated rows are known now; queried rows are counted as the result set is read
+                    profile.statementExecuted(sql, result == null ? 0 : updatedRows(statement, result), nanos);
+                }
+            }
+            return result instanceof ResultSet resultSet ? profiled(resultSet) : result;
+        });
+    }
+
+    private static long updatedRows(Statement statement, Object result) throws SQLException {
+        if (result instanceof Integer count) {
+            return Math.max(0, count);
+        }
+        if (result instanceof Long count) {
+            return Math.max(0, count);
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                // Drivers may report Statement.SUCCESS_NO_INFO (-2) instead of a count
+                total += Math.max(0, count);
+            }
+            return total;
+        }
+        if (result instanceof long[] counts) {
+            long total = 0;
+            for (long count : counts) {
+                total += Math.max(0, count);
+            }
+            return total;
+        }
+        if (Boolean.FALSE.equals(result)) {
+            return Math.max(0, statement.getUpdateCount());
+        }
+        return 0;
+    }
+
+    private ResultSet profiled(ResultSet resultSet) {
+        // Counting rows costs a reflective call per row, so only do it for someone who reads the count
+        if (resultSet == null || SqlProfile.current() == null) {
+            return resultSet;
+        }
+        return proxy(ResultSet.class, (proxy, method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                SqlProfile profile = SqlProfile.current();
+                if (profile != null) {
+                    profile.rowsRead(1);
+                }
+            }
+            return result;
+        });
+    }
+
+    // Proxies are equal only to themselves; the underlying object would not recognise them
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SqlProfilingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> args != null && args.length == 1 ? proxy == args[0] : handler.invoke(proxy, method, args);
+                    case "hashCode" -> args == null ? System.identityHashCode(proxy) : handler.invoke(proxy, method, args);
+                    default -> handler.invoke(proxy, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.uni.projectmanager.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Profiles the SQL of every {@code /api} request (see {@link SqlProfile}). The totals
+ * are recorded per route as {@code http.server.requests.sql.*} metrics and, with
+ * {@code sql.profiling.response-headers} on, sent in the {@value #STATEMENTS_HEADER}
+ * and {@value #ROWS_HEADER} headers and as {@code db} in {@code Server-Timing}. A statement that runs at least
+ * {@code sql.profiling.repeated-statement-threshold} times in one request is logged
+ * as a likely N+1 query.
+ *
+ * <p>Headers are added when the response body is first written, so statements run
+ * while streaming a body are in the metrics but not in the headers.
+ */
+@Component
+@ConditionalOnProperty(name = "sql.profiling.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlProfilingFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String ROWS_HEADER = "X-SQL-Rows";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlProfilingFilter.class);
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${sql.profiling.response-headers:false}")
+    private boolean responseHeaders;
+
+    @Value("${sql.profiling.repeated-statement-threshold:10}")
+    private int repeatedStatementThreshold;
+
+    private MeterRegistry registry;
+    private final Map<String, RouteMeters> routeMeters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlProfile profile = SqlProfile.open();
+        request.setAttribute(SqlProfile.REQUEST_ATTRIBUTE, profile);
+        ProfileHeaders profiled = new ProfileHeaders(response, profile);
+        try {
+            filterChain.doFilter(request, responseHeaders ? profiled : response);
+        } finally {
+            profile.close();
+            if (responseHeaders) {
+                profiled.addHeaders();
+            }
+            record(request, profile);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlProfile profile) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String method = request.getMethod();
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        RouteMeters meters = routeMeters.computeIfAbsent(method + " " + uri, key -> new RouteMeters(registry, method, uri));
+        meters.statements.record(profile.getStatements());
+        meters.rows.record(profile.getRows());
+        meters.time.record(profile.getTime());
+        for (Map.Entry<String, Integer> execution : profile.getExecutions().entrySet()) {
+            if (execution.getValue() >= repeatedStatementThreshold) {
+                log.warn("{} {} ran the same SQL {} times, likely an N+1 query: {}",
+                        method, uri, execution.getValue(), execution.getKey());
+                meters.repeated.increment();
+            }
+        }
+    }
+
+    // Looked up once per route, as building and registering meters on every request is not free
+    private static final class RouteMeters {
+
+        private final DistributionSummary statements;
+        private final DistributionSummary rows;
+        private final Timer time;
+        private final Counter repeated;
+
+        RouteMeters(MeterRegistry registry, String method, String uri) {
+            statements = DistributionSummary.builder("http.server.requests.sql.statements")
+                    .description("SQL statements per request")
+                    .tags("method", method, "uri", uri)
+                    .register(registry);
+            rows = DistributionSummary.builder("http.server.requests.sql.rows")
+                    .description("Rows read or updated by SQL per request")
+                    .tags("method", method, "uri", uri)
+                    .register(registry);
+            time = Timer.builder("http.server.requests.sql.time")
+                    .description("Time spent executing SQL per request")
+                    .tags("method", method, "uri", uri)
+                    .register(registry);
+            repeated = Counter.builder("http.server.requests.sql.repeated")
+                    .description("Requests that ran one statement repeatedly")
+                    .tags("method", method, "uri", uri)
+                    .register(registry);
+        }
+    }
+
+    private static final class ProfileHeaders extends HttpServletResponseWrapper {
+
+        private final SqlProfile profile;
+        private boolean added;
+
+        ProfileHeaders(HttpServletResponse response, SqlProfile profile) {
+            super(response);
+            this.profile = profile;
+        }
+
+        void addHeaders() {
+            if (added || isCommitted()) {
+                return;
+            }
+            added = true;
+            setHeader(STATEMENTS_HEADER, Integer.toString(profile.getStatements()));
+            setHeader(ROWS_HEADER, Long.toString(profile.getRows()));
+            addHeader("Server-Timing", "db;dur=" + profile.getTime().toNanos() / 1_000_000.0);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addHeaders();
+            super.sendError(sc);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.uni.projectmanager.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.boot.model.relational.Database;
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.lang.reflect.Member;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Assigns ids for {@link GeneratedId} entities, in the strategy configured under
+ * {@code spring.jpa.properties.ids.*}:
+ * <ul>
+ * <li>{@code pooled-lo} (default): each sequence call reserves a block of
+ * {@code ids.block-size} ids, starting at the value returned, and the node hands
+ * them out from memory. The sequences must increment by the block size; Hibernate
+ * refuses to start on a mismatch, unless JDBC metadata access is off as in the
+ * {@code fast-startup} profile.</li>
+ * <li>{@code time-ordered}: {@link TimeOrderedIds} with the node id in
+ * {@code ids.node-id}, unique per running instance. No database call at all, so ids
+ * are known before the row reaches the primary.</li>
+ * </ul>
+ */
+public class ConfigurableIdGenerator implements IdentifierGenerator {
+
+    public static final String STRATEGY = "ids.strategy";
+    public static final String BLOCK_SIZE = "ids.block-size";
+    public static final String NODE_ID = "ids.node-id";
+
+    private final String sequenceName;
+    private SequenceStyleGenerator sequence;
+    private TimeOrderedIds timeOrdered;
+
+    public ConfigurableIdGenerator(GeneratedId config, Member member, CustomIdGeneratorCreationContext context) {
+        this.sequenceName = config.sequence();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        Map<String, Object> settings = serviceRegistry.requireService(ConfigurationService.class).getSettings();
+        String strategy = setting(settings, STRATEGY, "pooled-lo");
+        switch (strategy) {
+            case "pooled-lo" -> {
+                Properties sequenceParameters = new Properties();
+                sequenceParameters.putAll(parameters);
+                sequenceParameters.put(SequenceStyleGenerator.SEQUENCE_PARAM, sequenceName);
+                sequenceParameters.put(OptimizableGenerator.INCREMENT_PARAM, setting(settings, BLOCK_SIZE, "1000"));
+                sequenceParameters.put(OptimizableGenerator.OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+                sequence = new SequenceStyleGenerator();
+                sequence.configure(type, sequenceParameters, serviceRegistry);
+            }
+            case "time-ordered" -> {
+                String nodeId = setting(settings, NODE_ID, "");
+                if (nodeId.isEmpty()) {
+                    throw new MappingException(NODE_ID + " must be set to a number between 0 and "
+                            + TimeOrderedIds.MAX_NODE_ID + ", unique per instance, for time-ordered ids");
+                }
+                timeOrdered = new TimeOrderedIds(Integer.parseInt(nodeId));
+            }
+            default -> throw new MappingException("Unknown " + STRATEGY + " '" + strategy + "'; use pooled-lo or time-ordered");
+        }
+    }
+
+    @Override
+    public void registerExportables(Database database) {
+        if (sequence != null) {
+            sequence.registerExportables(database);
+        }
+    }
+
+    @Override
+    public void initialize(SqlStringGenerationContext context) {
+        if (sequence != null) {
+            sequence.initialize(context);
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object entity) {
+        return sequence != null ? sequence.generate(session, entity) : timeOrdered.next();
+    }
+
+    private static String setting(Map<String, Object> settings, String name, String defaultValue) {
+        Object value = settings.get(name);
+        return value == null ? defaultValue : value.toString().trim();
+    }
+}
@@ -0,0 +1,21 @@
+package com.uni.projectmanager.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an id as assigned by {@link ConfigurableIdGenerator}, which takes its
+ * strategy from {@code ids.strategy} rather than from the mapping.
+ */
+@IdGeneratorType(ConfigurableIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface GeneratedId {
+
+    /** The sequence that hands out id blocks in the pooled-lo strategy. */
+    String sequence();
+}
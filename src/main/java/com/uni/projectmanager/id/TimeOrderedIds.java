@@ -0,0 +1,72 @@
+package com.uni.projectmanager.id;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered ids made up on the node, with no database round trip: milliseconds
+ * since 2026-01-01 (41 bits, enough until 2095), then the node id (5 bits), then a
+ * counter (7 bits). They stay below 2^53, so JavaScript clients read them as exact
+ * numbers, and they sort by creation time across nodes to the millisecond.
+ *
+ * <p>The timestamp and counter are kept together in one {@link AtomicLong}, so a
+ * counter overflow simply moves on to the next millisecond. A burst of more than 128
+ * ids in a millisecond therefore borrows from the next milliseconds; callers wait
+ * once the borrowed time runs more than a second ahead. If the clock steps back, ids
+ * keep counting up from the last one without waiting: how far ahead they run is
+ * measured against the monotonic clock, which does not step back. Ids could only
+ * repeat after a restart if the clock stepped back by more than the restart took.
+ */
+public class TimeOrderedIds {
+
+    static final long EPOCH_MILLIS = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 5;
+    static final int COUNTER_BITS = 7;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final long MAX_LEAD_MILLIS = 1000;
+
+    private final long node;
+    private final LongSupplier clock;
+    // Wall-clock millisecond and System.nanoTime() at construction, to project the time on a clock that never steps back
+    private final long startMillis;
+    private final long startNanos;
+    // (milliseconds since the epoch << COUNTER_BITS) | counter, of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public TimeOrderedIds(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    TimeOrderedIds(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ", was " + nodeId);
+        }
+        this.node = nodeId;
+        this.clock = clock;
+        this.startMillis = clock.getAsLong() - EPOCH_MILLIS;
+        this.startNanos = System.nanoTime();
+    }
+
+    public long next() {
+        while (true) {
+            long now = clock.getAsLong() - EPOCH_MILLIS;
+            long previous = last.get();
+            long next = Math.max(now << COUNTER_BITS, previous + 1);
+            long millis = next >>> COUNTER_BITS;
+            long elapsed = startMillis + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            // Only borrowed time counts: after a backward step the wall clock lags the ids, not the other way round
+            if (millis - Math.max(now, elapsed) > MAX_LEAD_MILLIS) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                continue;
+            }
+            if (last.compareAndSet(previous, next)) {
+                long counter = next & ((1L << COUNTER_BITS) - 1);
+                return (millis << (NODE_BITS + COUNTER_BITS)) | (node << COUNTER_BITS) | counter;
+            }
+        }
+    }
+}
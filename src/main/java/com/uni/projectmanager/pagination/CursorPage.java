@@ -0,0 +1,74 @@
+package com.uni.projectmanager.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. The cursor is an opaque token
+ * wrapping the id of the last row on the page; clients pass it back to get
+ * the next page.
+ */
+public class CursorPage<T> {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 500;
+
+    private final List<T> items;
+    private final String nextCursor;
+    private final long approximateTotal;
+
+    public CursorPage(List<T> items, String nextCursor, long approximateTotal) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.approximateTotal = approximateTotal;
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code size + 1} as the limit, so
+     * the extra row tells us whether there is a next page without a count query.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Long> idOf, long approximateTotal) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, approximateTotal);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, encode(idOf.apply(items.get(size - 1))), approximateTotal);
+    }
+
+    public static int clampSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    public static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public long getApproximateTotal() {
+        return approximateTotal;
+    }
+}
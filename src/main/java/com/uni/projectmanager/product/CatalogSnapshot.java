@@ -0,0 +1,186 @@
+package com.uni.projectmanager.product;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.uni.projectmanager.dao.ProductDAO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The full product list as it is served by {@code GET /api/products}, held as
+ * ready-made JSON bytes and a gzipped copy, so a list request writes bytes
+ * instead of querying and serializing the catalog.
+ *
+ * <p>A background thread rebuilds the snapshot after the {@link CatalogVersion}
+ * changes, waiting {@code products.snapshot.debounce} first so a burst of writes
+ * costs one rebuild. Until the new snapshot is ready the previous one is served,
+ * together with the ETag it was built under, so a list read right after a write
+ * may not show it yet. A catalog larger than {@code products.snapshot.max-size}
+ * is not snapshotted, and neither is one whose rebuild failed; {@link #current()}
+ * is then null and callers fall back to querying.
+ */
+@Component
+public class CatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    @Autowired
+    private ProductDAO productDAO;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${products.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${products.snapshot.debounce:PT0.2S}")
+    private Duration debounce;
+
+    @Value("${products.snapshot.max-size:256MB}")
+    private DataSize maxSize;
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private volatile Snapshot current;
+    private ObjectWriter productWriter;
+    private ScheduledExecutorService rebuildThread;
+    private Timer rebuilds;
+
+    @PostConstruct
+    void init() {
+        productWriter = objectMapper.writerFor(Product.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        rebuildThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuilds = Timer.builder("products.snapshot.rebuild")
+                .description("Time to read and serialize the product catalog snapshot")
+                .register(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        if (enabled) {
+            catalogVersion.onChange(this::scheduleRebuild);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildThread.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            scheduleRebuild();
+        }
+    }
+
+    /** The latest snapshot, or null when there is none to serve. */
+    public Snapshot current() {
+        return current;
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildThread.schedule(() -> {
+                // Cleared first, so a change made while rebuilding schedules another rebuild
+                rebuildPending.set(false);
+                rebuild();
+            }, debounce.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void rebuild() {
+        try {
+            current = rebuilds.recordCallable(this::build);
+        } catch (Exception e) {
+            current = null;
+            log.warn("Rebuilding the product catalog snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    void clear() {
+        current = null;
+    }
+
+    private Snapshot build() throws IOException {
+        // Read the version before the data, so a concurrent write can only make the tag older
+        String etag = catalogVersion.etag();
+        ByteArrayOutputStream json = new ByteArrayOutputStream(64 * 1024);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            generator.writeStartArray();
+            // Read like any other list request; the debounce gives replicas time to replay the change first
+            productDAO.forEach(product -> {
+                try {
+                    productWriter.writeValue(generator, product);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (json.size() > maxSize.toBytes()) {
+                    throw new IllegalStateException("Catalog exceeds products.snapshot.max-size of " + maxSize);
+                }
+            });
+            generator.writeEndArray();
+        }
+        byte[] jsonBytes = json.toByteArray();
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream(Math.max(1024, jsonBytes.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip, 64 * 1024)) {
+            out.write(jsonBytes);
+        }
+        return new Snapshot(etag, jsonBytes, gzip.toByteArray());
+    }
+
+    /** One immutable build of the catalog; the arrays are shared and must not be modified. */
+    public static final class Snapshot {
+
+        private final String etag;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        Snapshot(String etag, byte[] json, byte[] gzip) {
+            this.etag = etag;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.uni.projectmanager.product;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counter that changes whenever the product catalog is written through this
+ * instance, used as the ETag of product listings. The random epoch keeps tags
+ * issued before a restart from matching again afterwards.
+ *
+ * <p>{@link ProductChangeRelay} also bumps it for changes made through other
+ * instances, as it relays them.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong counter = new AtomicLong();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    public void bump() {
+        counter.incrementAndGet();
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    /** Runs the listener on the bumping thread after every bump; it must not block. */
+    public void onChange(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public String etag() {
+        return "\"catalog-" + epoch + "-" + counter.get() + "\"";
+    }
+}
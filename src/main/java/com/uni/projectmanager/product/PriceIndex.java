@@ -0,0 +1,417 @@
+package com.uni.projectmanager.product;
+
+import com.uni.projectmanager.dao.ProductDAO;
+import com.uni.projectmanager.datasource.RoutingContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * All product prices held in memory as parallel {@code double[]}/{@code long[]}
+ * arrays sorted by (price, id), so range counts, top-N and percentiles are
+ * answered with binary searches and no boxing.
+ *
+ * <p>Readers see an immutable snapshot and never block. Writes are queued and
+ * merged into a new snapshot in one pass over the arrays, so a merge costs O(n)
+ * however many changes it applies. Only one merge runs at a time, and writes that
+ * arrive meanwhile are merged together by the next one, so a burst of single-row
+ * writes does not cost one copy of the catalog each. A write is visible when
+ * {@link #put} returns, unless another thread was merging; it then shows up once
+ * that thread's next merge is done.
+ *
+ * <p>Writers call it after their change is committed, and changes may arrive in
+ * any order: every entry keeps the product version, and a change older than the
+ * one already applied is dropped. Deletes are final, as ids are never reused.
+ * Changes made through other instances arrive through {@link ProductChangeRelay}.
+ */
+@Component
+public class PriceIndex {
+
+    // Writers that know no version, such as tests, always win over what is indexed
+    private static final long NO_VERSION = Long.MIN_VALUE;
+    private static final long DELETED = Long.MAX_VALUE;
+    // How long removed entries keep their version to reject late, older changes
+    private static final long REMOVED_RETENTION_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    @Autowired
+    private ProductDAO productDAO;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private static final Snapshot EMPTY = new Snapshot(new double[0], new long[0], new long[0]);
+
+    // Held while merging or loading; pendingLock only guards the queue, so writers never wait on a merge
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private Map<Long, Change> pending = new HashMap<>();
+    // Ids not in the arrays whose version is still needed: deleted, or left without a price
+    private final Map<Long, Removed> removed = new HashMap<>();
+    private volatile Snapshot snapshot = EMPTY;
+    private volatile boolean loaded;
+
+    /**
+     * Reads every (id, price, version) row from the database, sorted there. Writes
+     * made while loading are queued and merged on top; the version check drops those
+     * the loaded rows already include.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        writeLock.lock();
+        try {
+            int capacity = (int) Math.min(Math.max(productDAO.estimateCount(), 16), Integer.MAX_VALUE - 8);
+            double[][] prices = {new double[capacity]};
+            long[][] ids = {new long[capacity]};
+            long[][] versions = {new long[capacity]};
+            int[] size = {0};
+            // Read from the primary so writes committed just before loading are not missed
+            RoutingContext.onPrimary(() -> {
+                productDAO.forEachPrice((id, price, version) -> {
+                    if (Double.isNaN(price)) {
+                        return;
+                    }
+                    if (size[0] == ids[0].length) {
+                        prices[0] = Arrays.copyOf(prices[0], size[0] * 2);
+                        ids[0] = Arrays.copyOf(ids[0], size[0] * 2);
+                        versions[0] = Arrays.copyOf(versions[0], size[0] * 2);
+                    }
+                    prices[0][size[0]] = normalize(price);
+                    versions[0][size[0]] = version;
+                    ids[0][size[0]++] = id;
+                });
+                return null;
+            });
+            snapshot = new Snapshot(Arrays.copyOf(prices[0], size[0]), Arrays.copyOf(ids[0], size[0]),
+                    Arrays.copyOf(versions[0], size[0]));
+            loaded = true;
+        } finally {
+            writeLock.unlock();
+        }
+        mergePending();
+        Gauge.builder("products.price.index.size", this, PriceIndex::size)
+                .register(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        return snapshot.ids.length;
+    }
+
+    public void put(Product product) {
+        putAll(List.of(product));
+    }
+
+    /**
+     * Adds or moves the given products; a product without a price is removed.
+     * Later entries win when an id is listed more than once with the same version.
+     */
+    public void putAll(Collection<Product> products) {
+        pendingLock.lock();
+        try {
+            for (Product product : products) {
+                if (product.getId() != null) {
+                    long version = product.getVersion() == null ? NO_VERSION : product.getVersion();
+                    // NaN marks a removal, which is also where a NaN price belongs
+                    double price = product.getPrice() == null ? Double.NaN : normalize(product.getPrice());
+                    queue(product.getId(), new Change(version, price));
+                }
+            }
+        } finally {
+            pendingLock.unlock();
+        }
+        mergePending();
+    }
+
+    /** Removes a deleted product; later changes to its id are ignored. */
+    public void remove(Long id) {
+        pendingLock.lock();
+        try {
+            queue(id, new Change(DELETED, Double.NaN));
+        } finally {
+            pendingLock.unlock();
+        }
+        mergePending();
+    }
+
+    /** Number of products priced in [min, max]. */
+    public int countBetween(double min, double max) {
+        Snapshot current = snapshot;
+        return Math.max(0, upperBound(current.prices, max) - lowerBound(current.prices, min));
+    }
+
+    public List<PricePoint> cheapest(int n) {
+        Snapshot current = snapshot;
+        int count = Math.min(n, current.ids.length);
+        List<PricePoint> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(new PricePoint(current.ids[i], current.prices[i]));
+        }
+        return points;
+    }
+
+    public List<PricePoint> mostExpensive(int n) {
+        Snapshot current = snapshot;
+        int count = Math.min(n, current.ids.length);
+        List<PricePoint> points = new ArrayList<>(count);
+        for (int i = current.ids.length - 1; i >= current.ids.length - count; i--) {
+            points.add(new PricePoint(current.ids[i], current.prices[i]));
+        }
+        return points;
+    }
+
+    /**
+     * Nearest-rank percentile for {@code percentile} in [0, 100], or NaN when the
+     * index is empty.
+     */
+    public double percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        Snapshot current = snapshot;
+        if (current.prices.length == 0) {
+            return Double.NaN;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * current.prices.length);
+        return current.prices[Math.max(rank, 1) - 1];
+    }
+
+    // Caller holds pendingLock
+    private void queue(long id, Change change) {
+        pending.merge(id, change, (queued, incoming) -> newer(incoming.version, queued.version) ? incoming : queued);
+    }
+
+    private static boolean newer(long incoming, long current) {
+        if (current == DELETED) {
+            return false;
+        }
+        return incoming == NO_VERSION || current == NO_VERSION || incoming >= current;
+    }
+
+    // Whoever gets the write lock merges everything queued, including other threads' changes
+    private void mergePending() {
+        while (hasPending() && writeLock.tryLock()) {
+            try {
+                Map<Long, Change> changes;
+                pendingLock.lock();
+                try {
+                    changes = pending;
+                    pending = new HashMap<>();
+                } finally {
+                    pendingLock.unlock();
+                }
+                merge(changes);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private boolean hasPending() {
+        pendingLock.lock();
+        try {
+            return !pending.isEmpty();
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    // Caller holds writeLock
+    private void merge(Map<Long, Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        int count = changes.size();
+        long[] changedIds = new long[count];
+        int c = 0;
+        for (Long id : changes.keySet()) {
+            changedIds[c++] = id;
+        }
+        Arrays.sort(changedIds);
+        Change[] byId = new Change[count];
+        for (int i = 0; i < count; i++) {
+            byId[i] = changes.get(changedIds[i]);
+        }
+        // Null until the change is known to apply (TRUE) or to be older than what is there (FALSE)
+        Boolean[] applies = new Boolean[count];
+
+        Snapshot current = snapshot;
+        int length = current.ids.length;
+        boolean[] replaced = new boolean[length];
+        for (int i = 0; i < length; i++) {
+            int index = Arrays.binarySearch(changedIds, current.ids[i]);
+            if (index >= 0) {
+                applies[index] = newer(byId[index].version, current.versions[i]);
+                replaced[i] = applies[index];
+            }
+        }
+        long now = System.nanoTime();
+        List<Integer> inserts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (applies[i] == null) {
+                Removed gone = removed.get(changedIds[i]);
+                applies[i] = gone == null || newer(byId[i].version, gone.version);
+            }
+            if (!applies[i]) {
+                continue;
+            }
+            if (Double.isNaN(byId[i].price)) {
+                removed.put(changedIds[i], new Removed(byId[i].version, now));
+            } else {
+                removed.remove(changedIds[i]);
+                inserts.add(i);
+            }
+        }
+        inserts.sort((a, b) -> compare(byId[a].price, changedIds[a], byId[b].price, changedIds[b]));
+        for (Iterator<Removed> it = removed.values().iterator(); it.hasNext(); ) {
+            if (now - it.next().removedAt > REMOVED_RETENTION_NANOS) {
+                it.remove();
+            }
+        }
+
+        double[] prices = new double[length + inserts.size()];
+        long[] ids = new long[prices.length];
+        long[] versions = new long[prices.length];
+        int out = 0;
+        int next = 0;
+        for (int i = 0; i < length; i++) {
+            if (replaced[i]) {
+                continue;
+            }
+            while (next < inserts.size()) {
+                int insert = inserts.get(next);
+                if (compare(byId[insert].price, changedIds[insert], current.prices[i], current.ids[i]) >= 0) {
+                    break;
+                }
+                prices[out] = byId[insert].price;
+                versions[out] = byId[insert].version;
+                ids[out++] = changedIds[insert];
+                next++;
+            }
+            prices[out] = current.prices[i];
+            versions[out] = current.versions[i];
+            ids[out++] = current.ids[i];
+        }
+        for (; next < inserts.size(); next++) {
+            int insert = inserts.get(next);
+            prices[out] = byId[insert].price;
+            versions[out] = byId[insert].version;
+            ids[out++] = changedIds[insert];
+        }
+        snapshot = out == prices.length
+                ? new Snapshot(prices, ids, versions)
+                : new Snapshot(Arrays.copyOf(prices, out), Arrays.copyOf(ids, out), Arrays.copyOf(versions, out));
+    }
+
+    private static int compare(double priceA, long idA, double priceB, long idB) {
+        int byPrice = Double.compare(priceA, priceB);
+        return byPrice != 0 ? byPrice : Long.compare(idA, idB);
+    }
+
+    // First index whose price is >= value
+    private static int lowerBound(double[] prices, double value) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(prices[mid], value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First index whose price is > value
+    private static int upperBound(double[] prices, double value) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(prices[mid], value) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Folds -0.0 into 0.0 so the database's ordering and Double.compare agree
+    private static double normalize(double price) {
+        return price + 0.0;
+    }
+
+    private static final class Snapshot {
+
+        private final double[] prices;
+        private final long[] ids;
+        private final long[] versions;
+
+        private Snapshot(double[] prices, long[] ids, long[] versions) {
+            this.prices = prices;
+            this.ids = ids;
+            this.versions = versions;
+        }
+    }
+
+    // A queued price, or NaN to remove the entry
+    private static final class Change {
+
+        private final long version;
+        private final double price;
+
+        private Change(long version, double price) {
+            this.version = version;
+            this.price = price;
+        }
+    }
+
+    private static final class Removed {
+
+        private final long version;
+        private final long removedAt;
+
+        private Removed(long version, long removedAt) {
+            this.version = version;
+            this.removedAt = removedAt;
+        }
+    }
+
+    public static class PricePoint {
+
+        private final long id;
+        private final double price;
+
+        public PricePoint(long id, double price) {
+            this.id = id;
+            this.price = price;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package com.uni.projectmanager.product;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.uni.projectmanager.id.GeneratedId;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "products")
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedId(sequence = "products_seq")
     private Long id;
 
     @Column(name = "name")
@@ -16,6 +19,13 @@ public class Product {
     @Column(name = "price")
     private Double price;
 
+    // Bumped by Hibernate on every update; clients see it in the ETag and cannot set it
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     // Getters and setters
     public Long getId() {
         return id;
@@ -40,4 +50,12 @@ public class Product {
     public void setPrice(Double price) {
         this.price = price;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
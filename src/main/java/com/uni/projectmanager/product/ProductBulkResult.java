@@ -0,0 +1,82 @@
+package com.uni.projectmanager.product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk product upsert: totals plus one entry per submitted item,
+ * in submission order.
+ */
+public class ProductBulkResult {
+
+    public enum Status {
+        CREATED, UPDATED, INVALID, FAILED
+    }
+
+    public static class Item {
+
+        private final int index;
+        private final Status status;
+        private final Long id;
+        private final String error;
+
+        public Item(int index, Status status, Long id, String error) {
+            this.index = index;
+            this.status = status;
+            this.id = id;
+            this.error = error;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    private int created;
+    private int updated;
+    private int invalid;
+    private int failed;
+    private final List<Item> items = new ArrayList<>();
+
+    void add(Item item) {
+        switch (item.getStatus()) {
+            case CREATED -> created++;
+            case UPDATED -> updated++;
+            case INVALID -> invalid++;
+            case FAILED -> failed++;
+        }
+        items.add(item);
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getInvalid() {
+        return invalid;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+}
@@ -0,0 +1,153 @@
+package com.uni.projectmanager.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.uni.projectmanager.dao.ProductDAO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates or updates products read from a JSON array or NDJSON stream. Items are
+ * validated as they are read and written in fixed-size batches, each batch in its
+ * own transaction: one SELECT for the ids it references, then batched INSERTs
+ * and UPDATEs, then one outbox INSERT for the batch's changes. A failing batch
+ * is reported per item and does not roll back the batches before it.
+ */
+@Component
+public class ProductBulkWriter {
+
+    @Autowired
+    private ProductDAO productDAO;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private ProductChangeLog productChangeLog;
+
+    @Value("${products.bulk.batch-size:500}")
+    private int batchSize;
+
+    private ObjectReader productReader;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        productReader = objectMapper.readerFor(Product.class);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ProductBulkResult write(InputStream in) throws IOException {
+        ProductBulkResult result = new ProductBulkResult();
+        List<Product> batch = new ArrayList<>(batchSize);
+        List<Integer> batchIndexes = new ArrayList<>(batchSize);
+        int index = 0;
+        // readValues unwraps a top-level array, and reads whitespace-separated values for NDJSON
+        try (MappingIterator<Product> products = productReader.readValues(in)) {
+            while (products.hasNextValue()) {
+                Product product;
+                try {
+                    product = products.nextValue();
+                } catch (JsonProcessingException e) {
+                    // The parser cannot resynchronise after malformed input, so stop reading here
+                    result.add(new ProductBulkResult.Item(index, ProductBulkResult.Status.INVALID, null,
+                            "Malformed product: " + e.getOriginalMessage()));
+                    break;
+                }
+                if (product == null || product.getName() == null || product.getPrice() == null) {
+                    result.add(new ProductBulkResult.Item(index++, ProductBulkResult.Status.INVALID, null,
+                            "Product name and price must not be null"));
+                    continue;
+                }
+                batch.add(product);
+                batchIndexes.add(index++);
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, batchIndexes, result);
+                    batch.clear();
+                    batchIndexes.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, batchIndexes, result);
+        }
+        result.getItems().sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return result;
+    }
+
+    private void writeBatch(List<Product> batch, List<Integer> indexes, ProductBulkResult result) {
+        Set<Long> updatedIds = new HashSet<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Long> ids = batch.stream()
+                        .map(Product::getId)
+                        .filter(id -> id != null)
+                        .collect(Collectors.toSet());
+                Map<Long, Product> existing = ids.isEmpty() ? Map.of() : productDAO.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+                List<Product> toSave = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    Product product = batch.get(i);
+                    Product current = product.getId() == null ? null : existing.get(product.getId());
+                    if (current != null) {
+                        current.setName(product.getName());
+                        current.setPrice(product.getPrice());
+                        // An id listed twice in one batch is a single managed entity; the later values win
+                        if (updatedIds.add(current.getId())) {
+                            toSave.add(current);
+                        }
+                        batch.set(i, current);
+                    } else {
+                        // Unknown ids are inserted with a generated id, as in the single-item create
+                        product.setId(null);
+                        toSave.add(product);
+                    }
+                }
+                productDAO.saveBatch(toSave);
+                productChangeLog.recordAll(toSave, product -> updatedIds.contains(product.getId())
+                        ? ProductChange.Type.UPDATED
+                        : ProductChange.Type.CREATED);
+            });
+        } catch (RuntimeException e) {
+            for (Integer index : indexes) {
+                result.add(new ProductBulkResult.Item(index, ProductBulkResult.Status.FAILED, null,
+                        "Error saving product: " + e.getMessage()));
+            }
+            return;
+        }
+        productCache.invalidateAll(updatedIds);
+        priceIndex.putAll(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            Product product = batch.get(i);
+            ProductBulkResult.Status status = updatedIds.contains(product.getId())
+                    ? ProductBulkResult.Status.UPDATED
+                    : ProductBulkResult.Status.CREATED;
+            result.add(new ProductBulkResult.Item(indexes.get(i), status, product.getId(), null));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.uni.projectmanager.product;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.uni.projectmanager.concurrent.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Bounded read-through cache for single-product lookups. Writers must call
+ * {@link #invalidate(Long)} after their change is committed; a lookup that is
+ * still loading when its entry is invalidated is not stored.
+ *
+ * <p>Entries are futures so the database query runs outside the cache's internal
+ * (synchronized) map locks; a query under such a lock would pin the carrier when
+ * requests run on virtual threads. Concurrent misses for the same id share that
+ * future, so they cost one query; such requests are counted as coalesced.
+ */
+@Component
+public class ProductCache {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${products.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${products.cache.ttl:PT5M}")
+    private Duration ttl;
+
+    private AsyncCache<Long, Product> cache;
+    private Counter loads;
+    private Counter coalesced;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        CaffeineCacheMetrics.monitor(registry, cache, "products");
+        loads = SingleFlight.loadCounter("products", registry);
+        coalesced = SingleFlight.coalescedCounter("products", registry);
+    }
+
+    public Optional<Product> findById(Long id) {
+        CompletableFuture<Product> created = new CompletableFuture<>();
+        CompletableFuture<Product> entry = cache.get(id, (key, executor) -> created);
+        if (entry == created) {
+            loads.increment();
+            try {
+                // Missing products complete with null, which Caffeine does not keep. Loads are routed like
+                // any other read, so a client that just wrote the product loads it from the primary
+                created.complete(productRepository.findById(id).orElse(null));
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+            }
+        } else if (!entry.isDone()) {
+            coalesced.increment();
+        }
+        try {
+            return Optional.ofNullable(entry.join());
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Returns the cached product without loading it, or empty when it is not cached
+     * or still loading.
+     */
+    public Optional<Product> peek(Long id) {
+        CompletableFuture<Product> entry = cache.getIfPresent(id);
+        if (entry == null || !entry.isDone() || entry.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entry.getNow(null));
+    }
+
+    public void invalidate(Long id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    public void invalidateAll(Iterable<Long> ids) {
+        cache.synchronous().invalidateAll(ids);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.synchronous().stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.synchronous().estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("averageLoadPenaltyNanos", stats.averageLoadPenalty());
+        result.put("coalescedCount", (long) coalesced.count());
+        return result;
+    }
+}
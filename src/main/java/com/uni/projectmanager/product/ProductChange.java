@@ -0,0 +1,110 @@
+package com.uni.projectmanager.product;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * One row of the product outbox: a create, update or delete, written in the same
+ * transaction as the change itself. The id is the change's sequence number and is
+ * what change feed consumers resume from.
+ */
+@Entity
+@Table(name = "product_changes")
+@JsonPropertyOrder({"seq", "type", "productId", "version", "product"})
+public class ProductChange {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    // Assigned by the database on insert; ProductChangeLog writes these rows with native SQL
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonProperty("seq")
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private Type type;
+
+    @Column(name = "product_version")
+    private Long version;
+
+    // The product as JSON after the change; null for deletes
+    @Column(name = "payload", columnDefinition = "text")
+    @JsonRawValue
+    @JsonProperty("product")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // The instance that wrote the change, see ProductChangeRelay.getOrigin(); null for rows written before it was recorded
+    @Column(name = "origin")
+    @JsonIgnore
+    private Long origin;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(Long origin) {
+        this.origin = origin;
+    }
+}
@@ -0,0 +1,139 @@
+package com.uni.projectmanager.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes product changes to the {@code product_changes} outbox inside the caller's
+ * transaction, so a change is published if and only if it commits.
+ *
+ * <p>Each write takes a transaction-scoped advisory lock before inserting, which
+ * makes outbox ids become visible in id order: a transaction cannot get an id until
+ * the one before it has committed or rolled back. {@link ProductChangeRelay} can
+ * therefore treat any gap below the highest id it sees as a rollback, never as a
+ * change still in flight. Callers should record their change last, just before
+ * commit, to keep the lock short.
+ */
+@Component
+public class ProductChangeLog {
+
+    // Arbitrary application-wide key for pg_advisory_xact_lock
+    private static final long OUTBOX_LOCK_KEY = 0x70726f6475637473L;
+
+    // PostgreSQL allows at most 65535 bind parameters per statement, up to five per row here
+    private static final int MAX_ROWS_PER_INSERT = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductChangeRelay productChangeRelay;
+
+    private ObjectWriter productWriter;
+
+    @PostConstruct
+    void init() {
+        productWriter = objectMapper.writerFor(Product.class);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(ProductChange.Type type, Product product) {
+        recordAll(List.of(product), p -> type);
+    }
+
+    /**
+     * Records one change per product, in list order, with as few INSERT statements
+     * as possible. Products must already have their id and new version.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(List<Product> products, Function<Product, ProductChange.Type> typeOf) {
+        if (products.isEmpty()) {
+            return;
+        }
+        lockForInsert();
+        for (int from = 0; from < products.size(); from += MAX_ROWS_PER_INSERT) {
+            insert(products.subList(from, Math.min(products.size(), from + MAX_ROWS_PER_INSERT)), typeOf);
+        }
+    }
+
+    /**
+     * Takes the outbox lock for a caller that inserts into {@code product_changes}
+     * itself, with a set-based INSERT ... SELECT, and relays its changes after
+     * commit. Call it just before that statement.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockForInsert() {
+        entityManager.createNativeQuery("SELECT pg_advisory_xact_lock(?1)")
+                .setParameter(1, OUTBOX_LOCK_KEY)
+                .getResultList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    productChangeRelay.wakeUp();
+                }
+            });
+        }
+    }
+
+    /** The value to write to {@code product_changes.origin} for changes made through this instance. */
+    public long origin() {
+        return productChangeRelay.getOrigin();
+    }
+
+    private void insert(List<Product> products, Function<Product, ProductChange.Type> typeOf) {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO product_changes (product_id, change_type, product_version, payload, created_at, origin) VALUES ");
+        List<Object> values = new ArrayList<>(products.size() * 5);
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            ProductChange.Type type = typeOf.apply(product);
+            sql.append(i == 0 ? "(" : ", (");
+            appendValue(sql, values, product.getId()).append(", ");
+            appendValue(sql, values, type.name()).append(", ");
+            appendValue(sql, values, product.getVersion()).append(", ");
+            appendValue(sql, values, type == ProductChange.Type.DELETED ? null : toJson(product)).append(", now(), ");
+            appendValue(sql, values, productChangeRelay.getOrigin()).append(')');
+        }
+        Query insert = entityManager.createNativeQuery(sql.toString());
+        for (int i = 0; i < values.size(); i++) {
+            insert.setParameter(i + 1, values.get(i));
+        }
+        insert.executeUpdate();
+    }
+
+    // Nulls are written inline: an untyped null parameter is bound as bytea by PostgreSQL
+    private static StringBuilder appendValue(StringBuilder sql, List<Object> values, Object value) {
+        if (value == null) {
+            return sql.append("NULL");
+        }
+        values.add(value);
+        return sql.append('?').append(values.size());
+    }
+
+    private String toJson(Product product) {
+        try {
+            return productWriter.writeValueAsString(product);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize product " + product.getId(), e);
+        }
+    }
+}
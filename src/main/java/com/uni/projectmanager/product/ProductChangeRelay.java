@@ -0,0 +1,361 @@
+package com.uni.projectmanager.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uni.projectmanager.datasource.RoutingContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans the {@code product_changes} outbox out to Server-Sent Events subscribers.
+ *
+ * <p>One relay thread polls the outbox for rows past the last one it relayed, and
+ * is woken early when a change commits on this instance. Every instance relays the
+ * whole table, so a subscriber sees changes made through any node, and the
+ * instance's own {@link ProductCache} and {@link PriceIndex} catch up with writes
+ * made elsewhere. Changes are tagged with the instance that wrote them, and an
+ * instance skips its own: they were applied when they committed, and applying them
+ * again would evict cache entries loaded since.
+ *
+ * <p>Each subscriber has a bounded buffer drained by its own virtual thread, so a
+ * slow client never holds up the relay or other subscribers. A subscriber whose
+ * buffer fills up is disconnected; its client reconnects with {@code Last-Event-ID}
+ * and catches up from the table. Changes older than the retention period are
+ * pruned, and a subscriber resuming from before them gets a {@code reset} event.
+ */
+@Component
+public class ProductChangeRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeRelay.class);
+
+    @Autowired
+    private ProductChangeRepository productChangeRepository;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${products.changes.poll-interval:PT1S}")
+    private Duration pollInterval;
+
+    @Value("${products.changes.batch-size:500}")
+    private int batchSize;
+
+    @Value("${products.changes.subscriber-buffer:1000}")
+    private int subscriberBuffer;
+
+    @Value("${products.changes.heartbeat:PT15S}")
+    private Duration heartbeat;
+
+    @Value("${products.changes.retention:P7D}")
+    private Duration retention;
+
+    // Random rather than configured, so two instances can never mistake each other's changes for their own
+    private final long origin = new SecureRandom().nextLong();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // Held while relaying a batch, so a new subscriber starts exactly where the relay stands
+    private final ReentrantLock relayLock = new ReentrantLock();
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+    private volatile long lastRelayed;
+    private volatile boolean started;
+    private ScheduledExecutorService relayThread;
+    private Counter overflows;
+
+    // Before the price index loads, so changes committed while it loads are relayed rather than missed
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        Long maxId = RoutingContext.onPrimary(productChangeRepository::findMaxId);
+        lastRelayed = maxId == null ? 0 : maxId;
+        relayThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-change-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        relayThread.scheduleWithFixedDelay(this::relay, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        relayThread.scheduleWithFixedDelay(this::prune, 1, 60, TimeUnit.MINUTES);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        Gauge.builder("products.changes.subscribers", subscribers, List::size).register(registry);
+        overflows = Counter.builder("products.changes.overflows")
+                .description("Subscribers disconnected because their buffer was full")
+                .register(registry);
+        started = true;
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        started = false;
+        if (relayThread != null) {
+            relayThread.shutdownNow();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.closed = true;
+        }
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    /** Identifies this instance in {@code product_changes.origin}. */
+    public long getOrigin() {
+        return origin;
+    }
+
+    /** Relays new changes now instead of at the next poll; called after a change commits. */
+    public void wakeUp() {
+        if (started && wakeUpPending.compareAndSet(false, true)) {
+            relayThread.execute(() -> {
+                wakeUpPending.set(false);
+                relay();
+            });
+        }
+    }
+
+    /**
+     * Streams changes after {@code since} followed by live changes. Without
+     * {@code since} only changes from now on are sent.
+     */
+    public SseEmitter subscribe(Long since) {
+        SseEmitter emitter = new SseEmitter();
+        Subscriber subscriber;
+        relayLock.lock();
+        try {
+            long upTo = lastRelayed;
+            subscriber = new Subscriber(emitter, since == null ? upTo : since, upTo);
+            subscribers.add(subscriber);
+        } finally {
+            relayLock.unlock();
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        Thread.ofVirtual().name("product-change-subscriber").start(subscriber);
+        return emitter;
+    }
+
+    // Moves the relay to just after the given outbox id; for tests that stub the outbox
+    void seek(long id) {
+        relayLock.lock();
+        try {
+            lastRelayed = id;
+        } finally {
+            relayLock.unlock();
+        }
+    }
+
+    void relay() {
+        boolean appliedElsewhere = false;
+        relayLock.lock();
+        try {
+            List<ProductChange> changes;
+            do {
+                long after = lastRelayed;
+                changes = RoutingContext.onPrimary(() ->
+                        productChangeRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(batchSize)));
+                if (changes.isEmpty()) {
+                    break;
+                }
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.offer(changes);
+                }
+                appliedElsewhere |= applyLocally(changes);
+                lastRelayed = changes.get(changes.size() - 1).getId();
+            } while (changes.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Relaying product changes failed: {}", e.getMessage());
+        } finally {
+            relayLock.unlock();
+        }
+        // Changes made through other instances change the catalog here too
+        if (appliedElsewhere) {
+            catalogVersion.bump();
+        }
+    }
+
+    // Returns whether any of the changes came from another instance
+    private boolean applyLocally(List<ProductChange> changes) {
+        List<Long> ids = new ArrayList<>(changes.size());
+        List<Product> updated = new ArrayList<>(changes.size());
+        for (ProductChange change : changes) {
+            if (change.getOrigin() != null && change.getOrigin() == origin) {
+                continue;
+            }
+            ids.add(change.getProductId());
+            if (change.getType() == ProductChange.Type.DELETED) {
+                priceIndex.remove(change.getProductId());
+            } else if (change.getPayload() != null) {
+                try {
+                    Product product = objectMapper.readValue(change.getPayload(), Product.class);
+                    // Version is read-only in JSON, and the row's id is authoritative
+                    product.setId(change.getProductId());
+                    product.setVersion(change.getVersion());
+                    updated.add(product);
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable payload of product change {}: {}", change.getId(), e.getMessage());
+                }
+            }
+        }
+        // Evicting also stops revalidation from answering 304 to the old version's ETag
+        if (ids.isEmpty()) {
+            return false;
+        }
+        productCache.invalidateAll(ids);
+        priceIndex.putAll(updated);
+        return true;
+    }
+
+    private void prune() {
+        try {
+            productChangeRepository.deleteCreatedBefore(Instant.now().minus(retention));
+        } catch (RuntimeException e) {
+            log.warn("Pruning product changes failed: {}", e.getMessage());
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<ProductChange> buffer = new ArrayBlockingQueue<>(subscriberBuffer);
+        // Changes up to this id come from the table; later ones arrive through the buffer
+        private final long catchUpTo;
+        private long cursor;
+        private volatile boolean overflowed;
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, long since, long catchUpTo) {
+            this.emitter = emitter;
+            this.cursor = since;
+            this.catchUpTo = catchUpTo;
+        }
+
+        // Called by the relay thread; must not block
+        void offer(List<ProductChange> changes) {
+            if (overflowed || closed) {
+                return;
+            }
+            for (ProductChange change : changes) {
+                if (!buffer.offer(change)) {
+                    overflowed = true;
+                    overflows.increment();
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        @Override
+        public void run() {
+            try {
+                catchUp();
+                while (!closed) {
+                    if (overflowed) {
+                        // The client resumes from the last event it received
+                        break;
+                    }
+                    ProductChange change = buffer.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (change == null) {
+                        // Also detects clients that went away without closing the connection
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } else {
+                        send(change);
+                    }
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // The client disconnected or the emitter timed out
+            } catch (RuntimeException e) {
+                log.warn("Product change subscriber failed: {}", e.getMessage());
+                emitter.completeWithError(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        private void catchUp() throws IOException {
+            if (cursor >= catchUpTo) {
+                return;
+            }
+            Long oldest = RoutingContext.onPrimary(productChangeRepository::findMinId);
+            if (oldest == null || cursor < oldest - 1) {
+                // Some changes after the cursor may have been pruned; the client has to reload the catalog
+                emitter.send(SseEmitter.event().id(Long.toString(catchUpTo)).name("reset")
+                        .data("Changes after " + cursor + " are no longer retained; reload the catalog"));
+                cursor = catchUpTo;
+                return;
+            }
+            List<ProductChange> page;
+            do {
+                long after = cursor;
+                page = RoutingContext.onPrimary(() -> productChangeRepository
+                        .findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(after, catchUpTo, Limit.of(batchSize)));
+                for (ProductChange change : page) {
+                    send(change);
+                }
+            } while (page.size() == batchSize && !closed);
+        }
+
+        private void send(ProductChange change) throws IOException {
+            // The relay may hand over changes this subscriber already read from the table
+            if (change.getId() <= cursor) {
+                return;
+            }
+            emitter.send(SseEmitter.event()
+                    .id(change.getId().toString())
+                    .name("product-change")
+                    .data(change, MediaType.APPLICATION_JSON));
+            cursor = change.getId();
+        }
+    }
+}
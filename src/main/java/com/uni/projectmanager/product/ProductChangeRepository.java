@@ -0,0 +1,31 @@
+package com.uni.projectmanager.product;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+    List<ProductChange> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<ProductChange> findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(Long afterId, Long upToId, Limit limit);
+
+    @Query("SELECT MIN(c.id) FROM ProductChange c")
+    Long findMinId();
+
+    @Query("SELECT MAX(c.id) FROM ProductChange c")
+    Long findMaxId();
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ProductChange c WHERE c.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -1,34 +1,297 @@
 package com.uni.projectmanager.product;
 
+import com.uni.projectmanager.dao.ProductDAO;
+import com.uni.projectmanager.pagination.CursorPage;
+import com.uni.projectmanager.web.CatalogProtobufHttpMessageConverter;
+import com.uni.projectmanager.web.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/products")
 @Tag(name = "Product Management", description = "Endpoints for managing products")
 public class ProductController {
 
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
     @Autowired
     private ProductRepository productRepository;
 
-    @Operation(summary = "Get all products", description = "Retrieve a list of all products")
+    @Autowired
+    private ProductDAO productDAO;
+
+    @Autowired
+    private ProductExporter productExporter;
+
+    @Autowired
+    private ProductBulkWriter productBulkWriter;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private ProductChangeLog productChangeLog;
+
+    @Autowired
+    private ProductChangeRelay productChangeRelay;
+
+    @Autowired
+    private ProductImporter productImporter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Each write commits together with its outbox record
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Operation(summary = "Get all products", description = "Retrieve a list of all products, or a single page when a cursor or size is given")
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public ResponseEntity<?> getAllProducts(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer size,
+        WebRequest request) {
+        if (cursor == null && size == null) {
+            CatalogSnapshot.Snapshot snapshot = catalogSnapshot.current();
+            if (snapshot != null && prefersJson(request.getHeader(HttpHeaders.ACCEPT))) {
+                return snapshotResponse(snapshot, request);
+            }
+        }
+        // Read the version before the data, so a concurrent write can only make the tag older
+        String etag = catalogVersion.etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        if (cursor == null && size == null) {
+            return ResponseEntity.ok().eTag(etag).body(productRepository.findAll());
+        }
+        Long afterId;
+        try {
+            afterId = CursorPage.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        int limit = CursorPage.clampSize(size);
+        List<Product> rows = productDAO.findPage(afterId, limit + 1);
+        return ResponseEntity.ok().eTag(etag).body(CursorPage.of(rows, limit, Product::getId, productDAO.estimateCount()));
+    }
+
+    // The snapshot's bytes are written as they are, gzipped when the client accepts it
+    private static ResponseEntity<?> snapshotResponse(CatalogSnapshot.Snapshot snapshot, WebRequest request) {
+        if (request.checkNotModified(snapshot.getEtag())) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(snapshot.getEtag())
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzip());
+        }
+        return response.body(snapshot.getJson());
+    }
+
+    // JSON is what content negotiation picks unless a binary format is preferred over it; equal
+    // quality values keep the header's order
+    private static boolean prefersJson(String accept) {
+        if (accept == null) {
+            return true;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return true;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_CBOR) || type.isCompatibleWith(SMILE)
+                || type.isCompatibleWith(CatalogProtobufHttpMessageConverter.PROTOBUF)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    @Operation(summary = "Search products", description = "Filter by name (match=prefix or contains, case-insensitive) and price range, sort by price, -price, name or -name, and return at most limit products")
+    @GetMapping("/search")
+    public ResponseEntity<?> searchProducts(
+        @RequestParam(required = false) String name,
+        @RequestParam(required = false) String match,
+        @RequestParam(required = false) Double minPrice,
+        @RequestParam(required = false) Double maxPrice,
+        @RequestParam(required = false) String sort,
+        @RequestParam(required = false) Integer limit) {
+        ProductSearch search;
+        try {
+            search = new ProductSearch(name, ProductSearch.parseNameMatch(match), minPrice, maxPrice,
+                ProductSearch.parseSort(sort), CursorPage.clampSize(limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return ResponseEntity.ok(productDAO.search(search));
+    }
+
+    @Operation(summary = "Export all products", description = "Stream every product as newline-delimited JSON; parallelism > 1 splits the export by id range across worker threads")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "1") int parallelism) {
+        StreamingResponseBody body = out -> productExporter.export(out, parallelism);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @Operation(summary = "Product change feed", description = "Server-Sent Events stream of product creates, updates and deletes. Resume after a change by sending its id as Last-Event-ID or since; without either, only new changes are sent. A reset event means changes were pruned and the catalog must be reloaded")
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+        @RequestParam(required = false) Long since,
+        @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        if (!productChangeRelay.isStarted()) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        // EventSource sends Last-Event-ID when it reconnects, which is newer than the since it started with
+        return ResponseEntity.ok(productChangeRelay.subscribe(lastEventId != null ? lastEventId : since));
+    }
+
+    @Operation(summary = "Product cache statistics", description = "Size, hit/miss counts and evictions of the product lookup cache")
+    @GetMapping("/cache/stats")
+    public Map<String, Object> getCacheStats() {
+        return productCache.stats();
+    }
+
+    @Operation(summary = "Count products in a price range", description = "Number of products priced between min and max inclusive, answered from the in-memory price index")
+    @GetMapping("/stats/price-count")
+    public ResponseEntity<?> countByPrice(
+        @RequestParam(defaultValue = "-Infinity") double min,
+        @RequestParam(defaultValue = "Infinity") double max) {
+        if (!priceIndex.isLoaded()) {
+            return priceIndexLoading();
+        }
+        if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+            return ResponseEntity.badRequest().body("min must not be greater than max");
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("min", min);
+        body.put("max", max);
+        body.put("count", priceIndex.countBetween(min, max));
+        return ResponseEntity.ok(body);
+    }
+
+    @Operation(summary = "Cheapest or most expensive products", description = "The n lowest priced products (order=asc) or highest priced (order=desc) as id and price, answered from the in-memory price index")
+    @GetMapping("/stats/price-top")
+    public ResponseEntity<?> topByPrice(
+        @RequestParam(defaultValue = "10") int n,
+        @RequestParam(defaultValue = "asc") String order) {
+        if (!priceIndex.isLoaded()) {
+            return priceIndexLoading();
+        }
+        if (n < 1 || n > CursorPage.MAX_SIZE) {
+            return ResponseEntity.badRequest().body("n must be between 1 and " + CursorPage.MAX_SIZE);
+        }
+        if (order.equalsIgnoreCase("asc")) {
+            return ResponseEntity.ok(priceIndex.cheapest(n));
+        }
+        if (order.equalsIgnoreCase("desc")) {
+            return ResponseEntity.ok(priceIndex.mostExpensive(n));
+        }
+        return ResponseEntity.badRequest().body("order must be asc or desc");
+    }
+
+    @Operation(summary = "Price percentiles", description = "Nearest-rank price percentiles, e.g. p=50,95, answered from the in-memory price index; empty when there are no products")
+    @GetMapping("/stats/price-percentiles")
+    public ResponseEntity<?> pricePercentiles(@RequestParam(defaultValue = "50,95,99") List<Double> p) {
+        if (!priceIndex.isLoaded()) {
+            return priceIndexLoading();
+        }
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (Double percentile : p) {
+            if (percentile == null || !(percentile >= 0 && percentile <= 100)) {
+                return ResponseEntity.badRequest().body("Percentiles must be between 0 and 100");
+            }
+            double price = priceIndex.percentile(percentile);
+            if (!Double.isNaN(price)) {
+                percentiles.put("p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString(), price);
+            }
+        }
+        return ResponseEntity.ok(percentiles);
+    }
+
+    private static ResponseEntity<?> priceIndexLoading() {
+        return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body("Price index is still loading");
     }
 
     @Operation(summary = "Get product by ID", description = "Retrieve a product by its ID")
     @GetMapping("/{id}")
-    public ResponseEntity<?> getProductById(@PathVariable Long id) {
-        return productRepository.findById(id)
-            .map(ResponseEntity::ok)
+    public ResponseEntity<?> getProductById(@PathVariable Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            // Answer revalidation from the version column alone, without loading the product
+            Long version = productCache.peek(id).map(Product::getVersion)
+                .or(() -> productDAO.findVersionById(id)).orElse(null);
+            if (version != null && request.checkNotModified(ETags.of(version))) {
+                return null;
+            }
+        }
+        return productCache.findById(id)
+            .<ResponseEntity<?>>map(product -> ResponseEntity.ok().eTag(ETags.of(product.getVersion())).body(product))
             .orElse(ResponseEntity.notFound().build());
         }
 
@@ -50,20 +313,101 @@ public class ProductController {
             return ResponseEntity.badRequest().body("Product name and price must not be null");
         }
         try {
-            // Ensure the user is in a managed state
-            if (product.getId() != null && productRepository.existsById(product.getId())) {
-                product = productRepository.findById(product.getId()).get();
+            Product toSave = product;
+            Product savedProduct = transactionTemplate.execute(status -> {
+                // Ensure the user is in a managed state
+                if (toSave.getId() != null && productRepository.existsById(toSave.getId())) {
+                    return productRepository.save(productRepository.findById(toSave.getId()).get());
+                }
+                // An unknown id with no version would be persisted as a detached entity
+                toSave.setId(null);
+                Product created = productRepository.save(toSave);
+                productChangeLog.record(ProductChange.Type.CREATED, created);
+                return created;
+            });
+            if (savedProduct.getId() != null) {
+                productCache.invalidate(savedProduct.getId());
+                priceIndex.put(savedProduct);
             }
-            Product savedProduct = productRepository.save(product);
+            catalogVersion.bump();
             return ResponseEntity.ok(savedProduct);
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error saving product: " + e.getMessage());
         }
     }
 
-    @Operation(summary = "Update a product", description = "Update an existing product's details")
+    @Operation(summary = "Create or update products in bulk", description = "Upsert a JSON array or NDJSON stream of products; items with an existing id are updated, all others are created")
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ProductBulkResult> bulkUpsertProducts(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Products to be created or updated",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    name = "Bulk Product Example",
+                    value = "[ { \"name\": \"Sample Product\", \"price\": 100 }, { \"id\": 1, \"name\": \"Updated Product\", \"price\": 120 } ]"
+                )
+            )
+        )
+        InputStream body) throws IOException {
+        ProductBulkResult result = productBulkWriter.write(body);
+        if (result.getCreated() > 0 || result.getUpdated() > 0) {
+            catalogVersion.bump();
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Import products from CSV", description = "Upload a CSV file, optionally gzipped, with a header naming the columns name and price, and optionally id. Rows with an existing id update that product, all others are created. The import runs in the background and is applied entirely or not at all; poll the returned Location for its status")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/gzip", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<?> importProducts(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "CSV file of products",
+            content = @Content(
+                mediaType = "text/csv",
+                examples = @ExampleObject(
+                    name = "Product Import Example",
+                    value = "id,name,price\n,Sample Product,100\n1,Updated Product,120\n"
+                )
+            )
+        )
+        InputStream body) throws IOException {
+        ProductImportJob job;
+        try {
+            job = productImporter.submit(body);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "60").body(e.getMessage());
+        }
+        return ResponseEntity.accepted().location(URI.create("/api/products/import/" + job.getId())).body(job);
+    }
+
+    @Operation(summary = "Product import status", description = "State and progress of a CSV import: bytes and rows read, rows rejected, and the products created and updated once it has completed")
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ProductImportJob> getImport(@PathVariable String jobId) {
+        return ResponseEntity.of(productImporter.find(jobId));
+    }
+
+    @Operation(summary = "Product import errors", description = "CSV of the rows a finished import rejected, with the reason for each")
+    @GetMapping("/import/{jobId}/errors")
+    public ResponseEntity<?> getImportErrors(@PathVariable String jobId) {
+        Optional<ProductImportJob> job = productImporter.find(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!job.get().isFinished()) {
+            return ResponseEntity.status(409).body("Import is still running");
+        }
+        // A job that failed before reading its upload has no report
+        if (job.get().getErrorReport() == null || !Files.exists(job.get().getErrorReport())) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("text/csv"))
+            .body(new FileSystemResource(job.get().getErrorReport()));
+    }
+
+    @Operation(summary = "Update a product", description = "Update an existing product's details; send the product's ETag in If-Match to update only if it has not changed since")
     @PutMapping("/{id}")
-    public Product updateUser(
+    public ResponseEntity<?> updateUser(
         @PathVariable Long id,
         @io.swagger.v3.oas.annotations.parameters.RequestBody(
             description = "Product object with updated details",
@@ -75,22 +419,76 @@ public class ProductController {
                 )
             )
         )
-        @RequestBody Product product) {
-        Product existingProduct = productRepository.findById(id).orElseThrow(() -> 
-            new RuntimeException("Product not found for update with id: " + id));
-        existingProduct.setName(product.getName());
-        existingProduct.setPrice(product.getPrice());
-        return productRepository.save(existingProduct);
+        @RequestBody Product product,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return update(id, product, ifMatch, false);
+    }
+
+    @Operation(summary = "Partially update a product", description = "Change only the fields present in the body; send the product's ETag in If-Match to update only if it has not changed since")
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchProduct(
+        @PathVariable Long id,
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Product fields to change",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    name = "Patch Product Example",
+                    value = "{ \"price\": 120 }"
+                )
+            )
+        )
+        @RequestBody Product changes,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (changes.getName() == null && changes.getPrice() == null) {
+            return ResponseEntity.badRequest().body("At least one of name or price must be set");
+        }
+        return update(id, changes, ifMatch, true);
+    }
+
+    // One conditional UPDATE; a stale If-Match surfaces as OptimisticLockingFailureException
+    private ResponseEntity<?> update(Long id, Product changes, String ifMatch, boolean partial) {
+        Long expectedVersion;
+        try {
+            expectedVersion = ETags.parseIfMatch(ifMatch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        Optional<Product> updated = transactionTemplate.execute(status -> {
+            Optional<Product> result = productDAO.update(id, expectedVersion, changes, partial);
+            result.ifPresent(product -> productChangeLog.record(ProductChange.Type.UPDATED, product));
+            return result;
+        });
+        if (updated.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        productCache.invalidate(id);
+        priceIndex.put(updated.get());
+        catalogVersion.bump();
+        return ResponseEntity.ok().eTag(ETags.of(updated.get().getVersion())).body(updated.get());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleVersionConflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(409).body("Product was modified concurrently; fetch it again and retry");
     }
 
     @Operation(summary = "Delete a product", description = "Delete a product by its ID")
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteProduct(@PathVariable Long id) {
-        return productRepository.findById(id)
+        Boolean deleted = transactionTemplate.execute(status -> productRepository.findById(id)
                 .map(product -> {
                     productRepository.deleteById(id);
-                    return ResponseEntity.ok("Product with id: " + id + " deleted successfully");
+                    productChangeLog.record(ProductChange.Type.DELETED, product);
+                    return true;
                 })
-                .orElse(ResponseEntity.notFound().build());
+                .orElse(false));
+        if (!Boolean.TRUE.equals(deleted)) {
+            return ResponseEntity.notFound().build();
+        }
+        productCache.invalidate(id);
+        priceIndex.remove(id);
+        catalogVersion.bump();
+        return ResponseEntity.ok("Product with id: " + id + " deleted successfully");
     }
 }
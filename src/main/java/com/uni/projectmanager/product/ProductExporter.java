@@ -0,0 +1,214 @@
+package com.uni.projectmanager.product;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.uni.projectmanager.dao.ProductDAO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes the product catalog as newline-delimited JSON straight from a database
+ * cursor, so memory use does not depend on the size of the table.
+ */
+@Component
+public class ProductExporter {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final byte[] END_OF_SLICE = new byte[0];
+
+    @Autowired
+    private ProductDAO productDAO;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${products.export.max-parallelism:4}")
+    private int maxParallelism;
+
+    private ObjectWriter productWriter;
+    private ExecutorService workers;
+
+    @PostConstruct
+    void init() {
+        // Flushing after every row would turn each product into its own socket write
+        productWriter = objectMapper.writerFor(Product.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        workers = Executors.newFixedThreadPool(maxParallelism);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    public void export(OutputStream out, int parallelism) throws IOException {
+        if (parallelism <= 1) {
+            exportSequential(out);
+        } else {
+            exportParallel(out, Math.min(parallelism, maxParallelism));
+        }
+    }
+
+    private void exportSequential(OutputStream out) throws IOException {
+        try (JsonGenerator generator = newGenerator(out)) {
+            productDAO.forEach(product -> writeLine(generator, product));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Splits [min id, max id] into slices that the worker pool streams concurrently.
+     * Workers serialize rows into chunks and hand them over through a bounded queue,
+     * which is drained by the calling thread; a slow client therefore blocks the
+     * workers instead of letting chunks pile up in memory. Rows are not written in
+     * id order.
+     */
+    private void exportParallel(OutputStream out, int parallelism) throws IOException {
+        Long minId = productDAO.findMinId();
+        Long maxId = productDAO.findMaxId();
+        if (minId == null || maxId == null) {
+            return;
+        }
+        // More slices than workers so an id range with a dense cluster of rows does not hold up the export
+        int slices = parallelism * 4;
+        long span = Math.max(1, (maxId - minId + slices) / slices);
+        BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(parallelism * 2);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExportSlice[] tasks = new ExportSlice[slices];
+        for (int i = 0; i < slices; i++) {
+            long fromId = minId + i * span;
+            long toId = i == slices - 1 ? maxId + 1 : fromId + span;
+            tasks[i] = new ExportSlice(fromId, toId, chunks, failure);
+            workers.execute(tasks[i]);
+        }
+
+        int finished = 0;
+        try {
+            while (finished < slices) {
+                byte[] chunk = chunks.take();
+                if (chunk == END_OF_SLICE) {
+                    finished++;
+                } else {
+                    out.write(chunk);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Product export interrupted", e);
+        } finally {
+            if (finished < slices) {
+                for (ExportSlice task : tasks) {
+                    task.cancelled = true;
+                }
+            }
+        }
+        if (failure.get() != null) {
+            throw new IOException("Product export failed", failure.get());
+        }
+        out.flush();
+    }
+
+    private JsonGenerator newGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Rows are separated by explicit newlines rather than Jackson's default root separator
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    private void writeLine(JsonGenerator generator, Product product) {
+        try {
+            productWriter.writeValue(generator, product);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private class ExportSlice implements Runnable {
+
+        private final long fromId;
+        private final long toId;
+        private final BlockingQueue<byte[]> chunks;
+        private final AtomicReference<Throwable> failure;
+        private volatile boolean cancelled;
+
+        ExportSlice(long fromId, long toId, BlockingQueue<byte[]> chunks, AtomicReference<Throwable> failure) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.chunks = chunks;
+            this.failure = failure;
+        }
+
+        @Override
+        public void run() {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(CHUNK_SIZE + 1024);
+            try {
+                if (!cancelled) {
+                    try (JsonGenerator generator = newGenerator(buffer)) {
+                        productDAO.forEachInRange(fromId, toId, product -> {
+                            writeLine(generator, product);
+                            if (buffer.size() >= CHUNK_SIZE) {
+                                flushChunk(generator, buffer);
+                            }
+                        });
+                        flushChunk(generator, buffer);
+                    }
+                }
+                handOver(END_OF_SLICE);
+            } catch (CancellationException e) {
+                // The writer has stopped reading; nothing left to report
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                try {
+                    handOver(END_OF_SLICE);
+                } catch (CancellationException ignored) {
+                    // The writer has stopped reading
+                }
+            }
+        }
+
+        private void flushChunk(JsonGenerator generator, ByteArrayOutputStream buffer) {
+            try {
+                generator.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (buffer.size() > 0) {
+                handOver(buffer.toByteArray());
+                buffer.reset();
+            }
+        }
+
+        // Offers with a timeout so a worker notices when the client has gone away
+        private void handOver(byte[] chunk) {
+            try {
+                while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                    if (cancelled) {
+                        throw new CancellationException();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException();
+            }
+        }
+    }
+}
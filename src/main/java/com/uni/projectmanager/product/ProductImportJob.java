@@ -0,0 +1,133 @@
+package com.uni.projectmanager.product;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Status of a CSV product import, updated by the import worker while clients
+ * poll it. Byte counts refer to the upload as sent, so a gzipped upload reports
+ * progress through the compressed file.
+ */
+public class ProductImportJob {
+
+    public enum State {
+        QUEUED, LOADING, MERGING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final long bytesTotal;
+    private final Instant submittedAt = Instant.now();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private volatile State state = State.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile long created;
+    private volatile long updated;
+    private volatile String error;
+    private volatile Path errorReport;
+
+    public ProductImportJob(String id, long bytesTotal) {
+        this.id = id;
+        this.bytesTotal = bytesTotal;
+    }
+
+    void started(Path errorReport) {
+        this.errorReport = errorReport;
+        startedAt = Instant.now();
+        state = State.LOADING;
+    }
+
+    void merging() {
+        state = State.MERGING;
+    }
+
+    void completed(long created, long updated) {
+        this.created = created;
+        this.updated = updated;
+        finishedAt = Instant.now();
+        state = State.COMPLETED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        state = State.FAILED;
+    }
+
+    void addBytesRead(long bytes) {
+        bytesRead.addAndGet(bytes);
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void rowRejected() {
+        rowsRejected.incrementAndGet();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    /** Products inserted; zero until the job has completed, as the rows are merged in one statement. */
+    public long getCreated() {
+        return created;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /** CSV of the rejected rows, with the reason for each. */
+    @JsonIgnore
+    public Path getErrorReport() {
+        return errorReport;
+    }
+}
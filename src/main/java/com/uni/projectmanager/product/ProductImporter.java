@@ -0,0 +1,407 @@
+package com.uni.projectmanager.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports products from a CSV upload (optionally gzipped) in the background. The
+ * header names the columns: {@code name} and {@code price}, and optionally
+ * {@code id}; rows with an existing id update that product, all others are created.
+ *
+ * <p>The upload is copied to a file as it arrives and the request returns; it is not
+ * streamed straight into COPY, which would hold a connection and a transaction open
+ * for as long as the client takes to upload. A worker
+ * then parses the file as a stream and sends the valid rows to a temporary staging
+ * table with PostgreSQL's COPY, a megabyte at a time, so memory use does not
+ * depend on the size of the file. One statement then merges the
+ * staging table into {@code products}, and a second copies the outbox records it
+ * collected into {@code product_changes}; only that copy runs under the outbox
+ * lock. All of it is one transaction: the import is applied entirely or not at all. Rejected rows are
+ * written to a per-job error report on disk.
+ *
+ * <p>Jobs live on the instance that accepted the upload, and are forgotten
+ * {@code products.import.retention} after they finish.
+ */
+@Component
+public class ProductImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImporter.class);
+
+    private static final int COPY_CHUNK_SIZE = 1024 * 1024;
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private static final String CREATE_STAGING_SQL = "CREATE TEMPORARY TABLE product_import_rows"
+            + " (row_no bigint, id bigint, name text, price float8, new_id bigint) ON COMMIT DROP";
+    private static final String CREATE_CHANGES_SQL = "CREATE TEMPORARY TABLE product_import_changes"
+            + " (product_id bigint, change_type varchar(16), product_version bigint, payload text) ON COMMIT DROP";
+    private static final String COPY_SQL = "COPY product_import_rows (row_no, id, name, price, new_id) FROM STDIN (FORMAT csv)";
+    // Same fields, in the same order, as Product's JSON in the rest of the outbox
+    private static final String PAYLOAD = "CAST(jsonb_build_object('id', id, 'name', name, 'price', price, 'version', version) AS text)";
+    // Rows listing the same id are merged once, with the values of the last one. Rows with an unknown id are created
+    // under a generated id, as in the bulk endpoint. All sub-statements see the table as it was before the merge. The
+    // outbox records are only collected here, so the outbox lock is not held while the merge runs
+    private static final String MERGE_SQL = "WITH latest AS ("
+            + " SELECT DISTINCT ON (id) id, name, price, new_id FROM product_import_rows"
+            + " WHERE id IS NOT NULL ORDER BY id, row_no DESC"
+            + "), updated AS ("
+            + " UPDATE products p SET name = l.name, price = l.price, version = p.version + 1"
+            + " FROM latest l WHERE p.id = l.id"
+            + " RETURNING p.id, p.name, p.price, p.version"
+            + "), inserted AS ("
+            + " INSERT INTO products (id, version, name, price)"
+            + " SELECT new_id, 0, name, price FROM product_import_rows WHERE id IS NULL"
+            + " UNION ALL"
+            + " SELECT l.new_id, 0, l.name, l.price FROM latest l"
+            + " WHERE NOT EXISTS (SELECT 1 FROM products p WHERE p.id = l.id)"
+            + " RETURNING id, name, price, version"
+            + "), changes AS ("
+            + " INSERT INTO product_import_changes (product_id, change_type, product_version, payload)"
+            + " SELECT id, 'UPDATED', version, " + PAYLOAD + " FROM updated"
+            + " UNION ALL"
+            + " SELECT id, 'CREATED', version, " + PAYLOAD + " FROM inserted"
+            + ")"
+            + " SELECT (SELECT count(*) FROM inserted), (SELECT count(*) FROM updated)";
+    private static final String RECORD_CHANGES_SQL = "INSERT INTO product_changes"
+            + " (product_id, change_type, product_version, payload, created_at, origin)"
+            + " SELECT product_id, change_type, product_version, payload, now(), ?1 FROM product_import_changes";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductChangeLog productChangeLog;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${products.import.directory:${java.io.tmpdir}}")
+    private String directory;
+
+    @Value("${products.import.threads:1}")
+    private int threads;
+
+    @Value("${products.import.max-queued:8}")
+    private int maxQueued;
+
+    @Value("${products.import.retention:PT24H}")
+    private Duration retention;
+
+    private final Map<String, ProductImportJob> jobs = new ConcurrentHashMap<>();
+    private ObjectReader rowReader;
+    private TransactionTemplate transactionTemplate;
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    void init() {
+        rowReader = new CsvMapper()
+                .readerForMapOf(String.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .withFeatures(CsvParser.Feature.TRIM_SPACES, CsvParser.Feature.SKIP_EMPTY_LINES,
+                        CsvParser.Feature.IGNORE_TRAILING_UNMAPPABLE);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueued), runnable -> {
+                    Thread thread = new Thread(runnable, "product-import-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Stores the upload and queues its import.
+     *
+     * @throws RejectedExecutionException when {@code products.import.max-queued} imports are already waiting
+     */
+    public ProductImportJob submit(InputStream upload) throws IOException {
+        removeExpiredJobs();
+        // Checked before reading the body too, so a full queue does not cost a whole upload
+        if (workers.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("Too many product imports are waiting");
+        }
+        Path file = Files.createTempFile(Path.of(directory), "product-import-", ".upload");
+        try {
+            Files.copy(upload, file, StandardCopyOption.REPLACE_EXISTING);
+            ProductImportJob job = new ProductImportJob(UUID.randomUUID().toString(), Files.size(file));
+            jobs.put(job.getId(), job);
+            try {
+                workers.execute(() -> run(job, file));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.getId());
+                throw e;
+            }
+            return job;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    public Optional<ProductImportJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void run(ProductImportJob job, Path upload) {
+        try {
+            Path errorReport = Files.createTempFile(Path.of(directory), "product-import-", "-errors.csv");
+            job.started(errorReport);
+            long[] counts;
+            try (InputStream in = open(upload, job);
+                 Writer errors = Files.newBufferedWriter(errorReport, StandardCharsets.UTF_8)) {
+                errors.write("row,error\n");
+                counts = transactionTemplate.execute(status -> {
+                    try {
+                        return load(in, errors, job);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            if (counts[0] > 0 || counts[1] > 0) {
+                // Any product may have changed, so the caches start over; the index is reloaded before the job
+                // completes, so clients that wait for completion read the new prices
+                productCache.invalidateAll();
+                priceIndex.load();
+                catalogVersion.bump();
+            }
+            job.completed(counts[0], counts[1]);
+        } catch (Exception e) {
+            Throwable cause = e instanceof UncheckedIOException ? e.getCause() : e;
+            log.warn("Product import {} failed: {}", job.getId(), cause.getMessage());
+            job.failed(cause instanceof JsonProcessingException json
+                    ? "Malformed CSV: " + json.getOriginalMessage()
+                    : cause.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException e) {
+                log.warn("Cannot delete product import upload {}: {}", upload, e.getMessage());
+            }
+        }
+    }
+
+    private static InputStream open(Path upload, ProductImportJob job) throws IOException {
+        InputStream in = new BufferedInputStream(new ProgressInputStream(Files.newInputStream(upload), job), 64 * 1024);
+        // Recognise gzip by its magic number, whether or not the client declared it
+        in.mark(2);
+        boolean gzipped = in.read() == 0x1f && in.read() == 0x8b;
+        in.reset();
+        return gzipped ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+
+    /** Stages every valid row and merges them; returns the number of products created and updated. */
+    private long[] load(InputStream in, Writer errors, ProductImportJob job) throws IOException {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        // Ids are assigned here, in the configured id strategy, so the merge needs no sequence calls of its own
+        IdentifierGenerator ids = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Product.class).getGenerator();
+        entityManager.createNativeQuery(CREATE_STAGING_SQL).executeUpdate();
+        entityManager.createNativeQuery(CREATE_CHANGES_SQL).executeUpdate();
+
+        StringBuilder chunk = new StringBuilder(COPY_CHUNK_SIZE + 1024);
+        try (MappingIterator<Map<String, String>> rows = rowReader.readValues(in)) {
+            boolean more = rows.hasNextValue();
+            CsvSchema header = ((CsvParser) rows.getParser()).getSchema();
+            if (header.column("name") == null || header.column("price") == null) {
+                throw new IllegalArgumentException("The first line must be a header with the columns name and price, and optionally id");
+            }
+            long row = 0;
+            while (more) {
+                Map<String, String> values = rows.nextValue();
+                job.rowRead();
+                row++;
+                String error = appendRow(chunk, row, values, ids, session);
+                if (error != null) {
+                    job.rowRejected();
+                    errors.append(Long.toString(row)).append(',').append(quote(error)).append('\n');
+                }
+                if (chunk.length() >= COPY_CHUNK_SIZE) {
+                    copy(session, chunk);
+                }
+                more = rows.hasNextValue();
+            }
+        }
+        copy(session, chunk);
+
+        job.merging();
+        // Temporary tables are never analyzed automatically; without statistics the merge is planned for a few rows
+        entityManager.createNativeQuery("ANALYZE product_import_rows").executeUpdate();
+        Object[] counts = (Object[]) entityManager.createNativeQuery(MERGE_SQL).getSingleResult();
+        // The outbox lock is held from here to commit, while the collected records are copied over
+        productChangeLog.lockForInsert();
+        entityManager.createNativeQuery(RECORD_CHANGES_SQL)
+                .setParameter(1, productChangeLog.origin())
+                .executeUpdate();
+        return new long[]{((Number) counts[0]).longValue(), ((Number) counts[1]).longValue()};
+    }
+
+    /** Appends the row to the chunk as staging CSV, or returns why it is rejected. */
+    private static String appendRow(StringBuilder chunk, long row, Map<String, String> values,
+                                    IdentifierGenerator ids, SessionImplementor session) {
+        String name = values.get("name");
+        if (name == null || name.isEmpty()) {
+            return "name is missing";
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            return "name is longer than " + MAX_NAME_LENGTH + " characters";
+        }
+        if (name.indexOf('\0') >= 0) {
+            return "name contains a NUL character";
+        }
+        String priceValue = values.get("price");
+        if (priceValue == null || priceValue.isEmpty()) {
+            return "price is missing";
+        }
+        double price;
+        try {
+            price = Double.parseDouble(priceValue);
+        } catch (NumberFormatException e) {
+            price = Double.NaN;
+        }
+        if (!Double.isFinite(price)) {
+            return "price '" + priceValue + "' is not a number";
+        }
+        String idValue = values.get("id");
+        Long id = null;
+        if (idValue != null && !idValue.isEmpty()) {
+            try {
+                id = Long.parseLong(idValue);
+            } catch (NumberFormatException e) {
+                return "id '" + idValue + "' is not a whole number";
+            }
+        }
+        // Every row gets a new id in case its id turns out not to exist; pooled-lo spends one sequence call per block
+        Object newId = ids.generate(session, null);
+        chunk.append(row).append(',');
+        if (id != null) {
+            chunk.append(id);
+        }
+        chunk.append(',').append(quote(name)).append(',').append(price).append(',').append(newId).append('\n');
+        return null;
+    }
+
+    // A COPY holds the connection until it ends, and generating ids may need the connection, so each chunk is its own COPY
+    private static void copy(SessionImplementor session, StringBuilder chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        chunk.setLength(0);
+        session.doWork(connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void removeExpiredJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            if (job.getFinishedAt() == null || job.getFinishedAt().isAfter(cutoff)) {
+                return false;
+            }
+            try {
+                if (job.getErrorReport() != null) {
+                    Files.deleteIfExists(job.getErrorReport());
+                }
+            } catch (IOException e) {
+                log.warn("Cannot delete product import error report {}: {}", job.getErrorReport(), e.getMessage());
+            }
+            return true;
+        });
+    }
+
+    private static final class ProgressInputStream extends FilterInputStream {
+
+        private final ProductImportJob job;
+
+        ProgressInputStream(InputStream in, ProductImportJob job) {
+            super(in);
+            this.job = job;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                job.addBytesRead(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                job.addBytesRead(n);
+            }
+            return n;
+        }
+    }
+}
@@ -1,8 +1,69 @@
 package com.uni.projectmanager.product;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+    List<Product> findAllByOrderByIdAsc(Limit limit);
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Planner estimate from pg_class; avoids a full count(*) scan on large tables
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('products' AS regclass)", nativeQuery = true)
+    Long estimateRowCount();
+
+    // Streams use a server-side cursor; the fetch size keeps a bounded number of rows in the driver
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p FROM Product p")
+    Stream<Product> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p FROM Product p WHERE p.id >= :fromId AND p.id < :toId")
+    Stream<Product> streamByIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Sorted as the price index keeps them, so loading it needs no sort in Java
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id, p.price, p.version FROM Product p WHERE p.price IS NOT NULL ORDER BY p.price, p.id")
+    Stream<Object[]> streamPrices();
+
+    @Query("SELECT p.version FROM Product p WHERE p.id = :id")
+    Long findVersionById(@Param("id") Long id);
+
+    @Query("SELECT MIN(p.id) FROM Product p")
+    Long findMinId();
+
+    @Query("SELECT MAX(p.id) FROM Product p")
+    Long findMaxId();
+
+    // Matches lower(name) so the trigram index on lower(name) serves both prefix and contains searches
+    static Specification<Product> nameLike(String name, boolean prefixOnly) {
+        String escaped = name.toLowerCase(Locale.ROOT)
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+        String pattern = prefixOnly ? escaped + "%" : "%" + escaped + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), pattern, '\\');
+    }
+
+    static Specification<Product> priceAtLeast(Double minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    static Specification<Product> priceAtMost(Double maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
 }
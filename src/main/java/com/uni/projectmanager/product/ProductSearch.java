@@ -0,0 +1,85 @@
+package com.uni.projectmanager.product;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Filters, ordering and limit for a product search. Only the filters that are
+ * set become SQL predicates.
+ */
+public class ProductSearch {
+
+    public enum NameMatch {
+        PREFIX, CONTAINS
+    }
+
+    private final String name;
+    private final NameMatch nameMatch;
+    private final Double minPrice;
+    private final Double maxPrice;
+    private final Sort sort;
+    private final int limit;
+
+    public ProductSearch(String name, NameMatch nameMatch, Double minPrice, Double maxPrice, Sort sort, int limit) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        this.name = name == null || name.isBlank() ? null : name;
+        this.nameMatch = nameMatch;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        // The id tie-breaker keeps the order stable between equal prices or names
+        this.sort = sort.and(Sort.by("id"));
+        this.limit = limit;
+    }
+
+    /**
+     * Parses {@code price}, {@code -price}, {@code name} or {@code -name}; a
+     * leading minus sorts descending. Null sorts by id.
+     */
+    public static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.unsorted();
+        }
+        boolean descending = sort.startsWith("-");
+        String property = descending ? sort.substring(1) : sort;
+        if (!property.equals("price") && !property.equals("name")) {
+            throw new IllegalArgumentException("Invalid sort: " + sort + "; use price, -price, name or -name");
+        }
+        return Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, property);
+    }
+
+    public static NameMatch parseNameMatch(String match) {
+        if (match == null || match.isBlank()) {
+            return NameMatch.CONTAINS;
+        }
+        try {
+            return NameMatch.valueOf(match.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid match: " + match + "; use prefix or contains");
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public NameMatch getNameMatch() {
+        return nameMatch;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
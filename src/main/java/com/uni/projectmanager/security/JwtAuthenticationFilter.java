@@ -0,0 +1,77 @@
+package com.uni.projectmanager.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Validates {@code Authorization: Bearer} tokens and exposes the token subject as the
+ * {@value #SUBJECT_ATTRIBUTE} request attribute. Requests without a valid token are only
+ * rejected when {@code security.jwt.enforce} is set, and never for login and sign-up;
+ * otherwise an invalid or expired token is ignored and the request goes on anonymously,
+ * so a client holding a stale token can still log in.
+ */
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String SUBJECT_ATTRIBUTE = "jwt.subject";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Value("${security.jwt.enforce:false}")
+    private boolean enforce;
+
+    /**
+     * Identifies the caller for per-client state: the token subject when the request
+     * carried a valid token, otherwise the remote address.
+     */
+    public static String clientKey(HttpServletRequest request) {
+        Object subject = request.getAttribute(SUBJECT_ATTRIBUTE);
+        return subject != null ? "sub:" + subject : "ip:" + request.getRemoteAddr();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        String error = "Missing bearer token";
+        if (header != null && header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            try {
+                String subject = JwtUtil.validateToken(header.substring(BEARER_PREFIX.length()).trim());
+                request.setAttribute(SUBJECT_ATTRIBUTE, subject);
+                error = null;
+            } catch (IllegalArgumentException e) {
+                error = e.getMessage();
+            }
+        }
+        if (error != null && enforce && requiresToken(request)) {
+            reject(response, error);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean requiresToken(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        // CORS preflight requests never carry credentials
+        if (!path.startsWith("/api/") || "OPTIONS".equals(request.getMethod())) {
+            return false;
+        }
+        boolean post = "POST".equals(request.getMethod());
+        return !(post && (path.equals("/api/users/login") || path.equals("/api/users")));
+    }
+
+    private void reject(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+}
@@ -1,10 +1,21 @@
 package com.uni.projectmanager.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 public class JwtUtil {
 
@@ -12,27 +23,137 @@ public class JwtUtil {
     private static final Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
     private static final long EXPIRATION_TIME = Long.parseLong(System.getenv("JWT_EXPIRATION_TIME")); // Configurable expiration
 
+    // Built parsers are immutable and safe to share between threads
+    private static final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+
+    // base64url of {"alg":"HS256"}, the header jjwt writes for HS256 tokens
+    private static final String HS256_HEADER = "eyJhbGciOiJIUzI1NiJ9.";
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    private static final Mac hmacPrototype = initMac();
+    private static final MessageDigest sha256Prototype = initDigest();
+
+    private static final int VERIFIED_TOKEN_CACHE_SIZE = 100_000;
+
+    /**
+     * Tokens that already passed signature verification, keyed by the SHA-256 of the
+     * token so raw bearer tokens are not retained. Each entry expires together with
+     * its token.
+     */
+    private static final Cache<ByteBuffer, VerifiedToken> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_TOKEN_CACHE_SIZE)
+            .expireAfter(new Expiry<ByteBuffer, VerifiedToken>() {
+                @Override
+                public long expireAfterCreate(ByteBuffer tokenHash, VerifiedToken token, long currentTime) {
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, token.expiresAt - System.currentTimeMillis()));
+                }
+
+                @Override
+                public long expireAfterUpdate(ByteBuffer tokenHash, VerifiedToken token, long currentTime, long currentDuration) {
+                    return expireAfterCreate(tokenHash, token, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(ByteBuffer tokenHash, VerifiedToken token, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    /**
+     * Produces the same compact HS256 token as the jjwt builder, but writes the
+     * header and claims directly instead of going through a claims map and the
+     * JSON serializer.
+     */
     public static String generateToken(String email) {
-        return Jwts.builder()
-                .setSubject(email)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(key, SignatureAlgorithm.HS256)
-                .compact();
+        long now = System.currentTimeMillis();
+        StringBuilder claims = new StringBuilder(64 + email.length());
+        claims.append("{\"sub\":\"");
+        appendJsonEscaped(claims, email);
+        claims.append("\",\"iat\":").append(now / 1000)
+                .append(",\"exp\":").append((now + EXPIRATION_TIME) / 1000)
+                .append('}');
+
+        String signingInput = HS256_HEADER + BASE64URL.encodeToString(claims.toString().getBytes(StandardCharsets.UTF_8));
+        byte[] signature = newMac().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + '.' + BASE64URL.encodeToString(signature);
     }
 
     public static String validateToken(String token) {
+        ByteBuffer tokenHash = ByteBuffer.wrap(newDigest().digest(token.getBytes(StandardCharsets.US_ASCII)));
+        VerifiedToken verified = verifiedTokens.getIfPresent(tokenHash);
+        if (verified != null && verified.expiresAt > System.currentTimeMillis()) {
+            return verified.subject;
+        }
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .getSubject();
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Date expiration = claims.getExpiration();
+            if (expiration != null) {
+                verifiedTokens.put(tokenHash, new VerifiedToken(claims.getSubject(), expiration.getTime()));
+            }
+            return claims.getSubject();
         } catch (ExpiredJwtException e) {
             throw new IllegalArgumentException("Token has expired", e);
         } catch (JwtException e) {
             throw new IllegalArgumentException("Invalid token", e);
         }
     }
-}
\ No newline at end of file
+
+    private static void appendJsonEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    private static Mac initMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key.getEncoded(), "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static MessageDigest initDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Cloning an initialised prototype skips the provider lookup and key setup on every call
+    private static Mac newMac() {
+        try {
+            return (Mac) hmacPrototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return initMac();
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return (MessageDigest) sha256Prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return initDigest();
+        }
+    }
+
+    private static final class VerifiedToken {
+
+        private final String subject;
+        private final long expiresAt;
+
+        private VerifiedToken(String subject, long expiresAt) {
+            this.subject = subject;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.uni.projectmanager.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt hashing on a dedicated, bounded thread pool. Hashing is deliberately
+ * expensive, so it is kept off the request threads' CPU budget: at most
+ * {@code hash-threads} hashes run at once, at most {@code hash-queue-capacity} wait,
+ * and anything beyond that fails fast with {@link PasswordHashingRejectedException}.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
+    @Value("${security.password.bcrypt-strength:10}")
+    private int strength;
+
+    @Value("${security.password.hash-threads:0}")
+    private int threads;
+
+    @Value("${security.password.hash-queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${security.password.hash-timeout:PT5S}")
+    private Duration timeout;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private BCryptPasswordEncoder encoder;
+    // Matches no password; checked instead when there is no stored password
+    private String dummyHash;
+    private ThreadPoolExecutor executor;
+    private Timer hashTimer;
+    private Timer verifyTimer;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        encoder = new BCryptPasswordEncoder(strength);
+        dummyHash = encoder.encode(UUID.randomUUID().toString());
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        hashTimer = Timer.builder("password.hash").tag("operation", "hash").publishPercentileHistogram().register(registry);
+        verifyTimer = Timer.builder("password.hash").tag("operation", "verify").publishPercentileHistogram().register(registry);
+        rejected = Counter.builder("password.hash.rejected").register(registry);
+        Gauge.builder("password.hash.queue.depth", executor, e -> e.getQueue().size()).register(registry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public String hash(String rawPassword) {
+        return submit(() -> hashTimer.recordCallable(() -> encoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (storedPassword == null) {
+            // As slow as a real check, so a login for an unknown account cannot be told apart by its timing
+            submit(() -> verifyTimer.recordCallable(() -> encoder.matches(rawPassword, dummyHash)));
+            return false;
+        }
+        if (!isHashed(storedPassword)) {
+            // Rows written before passwords were hashed; they are rehashed on the next successful login
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        return submit(() -> verifyTimer.recordCallable(() -> encoder.matches(rawPassword, storedPassword)));
+    }
+
+    /**
+     * True when the stored value is plaintext or was hashed with a lower work factor
+     * than the one currently configured.
+     */
+    public boolean needsRehash(String storedPassword) {
+        return !isHashed(storedPassword) || encoder.upgradeEncoding(storedPassword);
+    }
+
+    private boolean isHashed(String storedPassword) {
+        return BCRYPT_PATTERN.matcher(storedPassword).matches();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Password hashing is overloaded", e);
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.uni.projectmanager.security;
+
+/**
+ * Thrown when the password hashing pool is saturated or a hash did not finish in
+ * time. Callers should answer with 503 rather than queue more work.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,65 @@
+package com.uni.projectmanager.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client rate limiting for {@code /api/**}, configured under
+ * {@code security.rate-limit}; see {@link RateLimitInterceptor}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "security.rate-limit.enabled", havingValue = "true")
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private RateLimitInterceptor rateLimitInterceptor;
+    private ScheduledExecutorService evictor;
+
+    @PostConstruct
+    void init() {
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        rateLimitInterceptor = new RateLimitInterceptor(properties, registry);
+        Gauge.builder("http.server.requests.rate.limited.clients", rateLimitInterceptor, RateLimitInterceptor::trackedClients)
+                .description("Clients with a partly used rate limit bucket")
+                .register(registry);
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getIdleEviction().toMillis();
+        evictor.scheduleWithFixedDelay(rateLimitInterceptor::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Ahead of the other interceptors, so a rejected request does no further work
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/**").order(Ordered.HIGHEST_PRECEDENCE);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        evictor.shutdownNow();
+    }
+}
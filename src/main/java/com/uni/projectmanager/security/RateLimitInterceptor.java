@@ -0,0 +1,99 @@
+package com.uni.projectmanager.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers {@code 429 Too Many Requests} with {@code Retry-After} once a client has
+ * used up its bucket for a route. Clients are identified as in
+ * {@link JwtAuthenticationFilter#clientKey(HttpServletRequest)}, so the limit follows
+ * the token subject and falls back to the remote address for anonymous calls such as
+ * login. Limits are per instance.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final Limit defaultLimit;
+    // pattern -> HTTP method -> limit; the pattern is the one Spring MVC matched the request to
+    private final Map<String, Map<String, Limit>> routeLimits = new HashMap<>();
+    private final List<Limit> limits = new ArrayList<>();
+
+    public RateLimitInterceptor(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        defaultLimit = new Limit("default", new RateLimiter(properties.getCapacity(), properties.getRefillPerSecond()), meterRegistry);
+        limits.add(defaultLimit);
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            String method = route.getMethod().toUpperCase(Locale.ROOT);
+            Limit limit = new Limit(method + " " + route.getPattern(),
+                    new RateLimiter(route.getCapacity(), route.getRefillPerSecond()), meterRegistry);
+            routeLimits.computeIfAbsent(route.getPattern(), pattern -> new HashMap<>()).put(method, limit);
+            limits.add(limit);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // Async re-dispatches of streaming responses were already counted; CORS preflights carry no credentials
+        if (request.getDispatcherType() != DispatcherType.REQUEST || request.getMethod().equals("OPTIONS")) {
+            return true;
+        }
+        Limit limit = defaultLimit;
+        Map<String, Limit> byMethod = routeLimits.get((String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+        if (byMethod != null) {
+            limit = byMethod.getOrDefault(request.getMethod(), defaultLimit);
+        }
+        long waitNanos = limit.limiter.tryAcquire(JwtAuthenticationFilter.clientKey(request));
+        if (waitNanos == 0) {
+            return true;
+        }
+        limit.rejected.increment();
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1)));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write("Too many requests");
+        return false;
+    }
+
+    /** Drops clients whose buckets have refilled; returns how many were dropped. */
+    public int evictIdle() {
+        int evicted = 0;
+        for (Limit limit : limits) {
+            evicted += limit.limiter.evictIdle();
+        }
+        return evicted;
+    }
+
+    public int trackedClients() {
+        int clients = 0;
+        for (Limit limit : limits) {
+            clients += limit.limiter.size();
+        }
+        return clients;
+    }
+
+    private static final class Limit {
+
+        private final RateLimiter limiter;
+        private final Counter rejected;
+
+        Limit(String route, RateLimiter limiter, MeterRegistry meterRegistry) {
+            this.limiter = limiter;
+            this.rejected = Counter.builder("http.server.requests.rate.limited")
+                    .description("Requests rejected with 429 by the per-client rate limit")
+                    .tag("route", route)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.uni.projectmanager.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bound from {@code security.rate-limit.*}. The default limit applies per client to
+ * all API routes that are not listed in {@code routes}; each listed route has its
+ * own bucket per client.
+ */
+@ConfigurationProperties("security.rate-limit")
+public class RateLimitProperties {
+
+    private int capacity = 200;
+    private double refillPerSecond = 100;
+    private Duration idleEviction = Duration.ofMinutes(1);
+    private List<Route> routes = new ArrayList<>();
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public double getRefillPerSecond() {
+        return refillPerSecond;
+    }
+
+    public void setRefillPerSecond(double refillPerSecond) {
+        this.refillPerSecond = refillPerSecond;
+    }
+
+    public Duration getIdleEviction() {
+        return idleEviction;
+    }
+
+    public void setIdleEviction(Duration idleEviction) {
+        this.idleEviction = idleEviction;
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<Route> routes) {
+        this.routes = routes;
+    }
+
+    public static class Route {
+
+        private String method;
+        // The mapping pattern as declared on the controller, e.g. /api/products/{id}
+        private String pattern;
+        private int capacity;
+        private double refillPerSecond;
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
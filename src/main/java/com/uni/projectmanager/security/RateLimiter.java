@@ -0,0 +1,83 @@
+package com.uni.projectmanager.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets, kept as the generic cell rate algorithm: each client's
+ * bucket is a single "theoretical arrival time" in an {@link AtomicLong}, so taking
+ * a token is one read of the clock and one compare-and-set, with no locks.
+ *
+ * <p>A client allowed {@code capacity} requests at once and {@code refillPerSecond}
+ * after that is at its theoretical arrival time plus up to
+ * {@code (capacity - 1)} refill intervals. Once that time has passed the bucket is
+ * full again, which is the same as having no entry, so {@link #evictIdle()} can drop
+ * it without losing anything.
+ */
+public class RateLimiter {
+
+    private static final long FULL = Long.MIN_VALUE;
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(int capacity, double refillPerSecond) {
+        this(capacity, refillPerSecond, System::nanoTime);
+    }
+
+    RateLimiter(int capacity, double refillPerSecond, LongSupplier nanoClock) {
+        if (capacity < 1 || !(refillPerSecond > 0)) {
+            throw new IllegalArgumentException("Rate limit capacity and refill rate must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = intervalNanos * (capacity - 1);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes a token from the client's bucket.
+     *
+     * @return 0 when the request may proceed, otherwise the nanoseconds until the
+     * next token is available
+     */
+    public long tryAcquire(String client) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(client, key -> new AtomicLong(FULL));
+        }
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long arrival = bucket.get();
+            long start = arrival == FULL || arrival - now < 0 ? now : arrival;
+            long wait = start - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops clients whose bucket has refilled completely. A request racing the
+     * removal may be counted against a bucket that is then dropped, which only
+     * ever gives that client one extra token.
+     */
+    public int evictIdle() {
+        long now = nanoClock.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> {
+            long arrival = bucket.get();
+            return arrival == FULL || arrival - now <= 0;
+        });
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -1,13 +1,16 @@
 package com.uni.projectmanager.user;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.uni.projectmanager.id.GeneratedId;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "users")
 public class User {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedId(sequence = "users_seq")
   private Long id;
 
   @Column(name = "name")
@@ -16,9 +19,18 @@ public class User {
   @Column(name = "email")
   private String email;
 
+  // Accepted on create, update and login, but never written out: it holds the BCrypt hash
   @Column(name = "password")
+  @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
   private String password;
 
+  // Bumped by Hibernate on every update; clients see it in the ETag and cannot set it
+  @Version
+  @ColumnDefault("0")
+  @Column(name = "version", nullable = false)
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  private Long version;
+
   //getters and setters
 
   public Long getId() {
@@ -53,6 +65,14 @@ public class User {
     this.password = password;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public User(String email, String password) {
     this.email = email;
     this.password = password;
@@ -4,10 +4,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import com.uni.projectmanager.security.JwtUtil;
-import java.util.List;
+import com.uni.projectmanager.security.PasswordHashingRejectedException;
+import com.uni.projectmanager.web.ETags;
+
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/users")
@@ -17,17 +24,33 @@ public class UserController {
     @Autowired
     private UserService userService;
 
-    @Operation(summary = "Get all users", description = "Retrieve a list of all users")
+    @Operation(summary = "Get all users", description = "Retrieve a list of all users, or a single page when a cursor or size is given")
     @GetMapping
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    public ResponseEntity<?> getAllUsers(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer size) {
+        if (cursor == null && size == null) {
+            return ResponseEntity.ok(userService.getAllUsers());
+        }
+        try {
+            return ResponseEntity.ok(userService.getUserPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @Operation(summary = "Get user by ID", description = "Retrieve a user by their ID")
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUserById(@PathVariable Long id) {
+    public ResponseEntity<?> getUserById(@PathVariable Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            // Revalidate against the version column without loading the user
+            Optional<Long> version = userService.getUserVersion(id);
+            if (version.isPresent() && request.checkNotModified(ETags.of(version.get()))) {
+                return null;
+            }
+        }
         return userService.getUserById(id)
-                .map(ResponseEntity::ok)
+                .<ResponseEntity<?>>map(user -> ResponseEntity.ok().eTag(ETags.of(user.getVersion())).body(user))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -48,7 +71,7 @@ public class UserController {
         return ResponseEntity.ok(userService.createUser(user));
     }
 
-    @Operation(summary = "Update a user", description = "Update an existing user's details")
+    @Operation(summary = "Update a user", description = "Update an existing user's details; send the user's ETag in If-Match to update only if it has not changed since")
     @PutMapping("/{id}")
     public ResponseEntity<?> updateUser(
         @PathVariable Long id,
@@ -62,8 +85,49 @@ public class UserController {
                 )
             )
         )
-        @RequestBody User user) {
-        return ResponseEntity.ok(userService.updateUser(id, user));
+        @RequestBody User user,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion;
+        try {
+            expectedVersion = ETags.parseIfMatch(ifMatch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return updated(userService.updateUser(id, user, expectedVersion));
+    }
+
+    @Operation(summary = "Partially update a user", description = "Change only the fields present in the body; send the user's ETag in If-Match to update only if it has not changed since")
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchUser(
+        @PathVariable Long id,
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "User fields to change",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    name = "Patch User Example",
+                    value = "{ \"email\": \"jane.doe@example.com\" }"
+                )
+            )
+        )
+        @RequestBody User changes,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (changes.getName() == null && changes.getEmail() == null
+                && (changes.getPassword() == null || changes.getPassword().isEmpty())) {
+            return ResponseEntity.badRequest().body("At least one of name, email or password must be set");
+        }
+        Long expectedVersion;
+        try {
+            expectedVersion = ETags.parseIfMatch(ifMatch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return updated(userService.patchUser(id, changes, expectedVersion));
+    }
+
+    private static ResponseEntity<?> updated(Optional<User> user) {
+        return user.<ResponseEntity<?>>map(u -> ResponseEntity.ok().eTag(ETags.of(u.getVersion())).body(u))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Delete a user", description = "Delete a user by their ID")
@@ -76,6 +140,9 @@ public class UserController {
     @Operation(summary = "Login", description = "Authenticate a user by email and password")
     @PostMapping("/login")
 public ResponseEntity<?> login(@RequestBody User loginRequest) {
+    if (loginRequest.getEmail() == null || loginRequest.getPassword() == null) {
+        return ResponseEntity.badRequest().body("Email and password must not be null");
+    }
     return userService.login(loginRequest.getEmail(), loginRequest.getPassword())
             .map(user -> {
                 String token = JwtUtil.generateToken(user.getEmail());
@@ -84,4 +151,20 @@ public ResponseEntity<?> login(@RequestBody User loginRequest) {
             .orElse(ResponseEntity.status(401).body("Invalid email or password"));
 }
 
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<?> handlePasswordHashingRejected(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleVersionConflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(409).body("User was modified concurrently; fetch it again and retry");
+    }
+
+    // The unique index on users.email is the only constraint a request can break
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<?> handleDuplicateEmail(DataIntegrityViolationException e) {
+        return ResponseEntity.status(409).body("A user with this email already exists");
+    }
+
 }
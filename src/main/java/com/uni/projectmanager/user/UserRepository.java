@@ -1,9 +1,31 @@
 package com.uni.projectmanager.user;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     User findByEmail(String email);
+
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Long findVersionById(@Param("id") Long id);
+
+    // Not VERSIONED, so the version is left as it is
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id AND u.password = :expected")
+    int replacePassword(@Param("id") Long id, @Param("expected") String expected, @Param("password") String password);
+
+    List<User> findAllByOrderByIdAsc(Limit limit);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Planner estimate from pg_class; avoids a full count(*) scan on large tables
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('users' AS regclass)", nativeQuery = true)
+    Long estimateRowCount();
 }
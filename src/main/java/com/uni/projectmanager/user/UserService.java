@@ -1,13 +1,18 @@
 package com.uni.projectmanager.user;
 
+import com.uni.projectmanager.pagination.CursorPage;
+
 import java.util.List;
 import java.util.Optional;
 
 public interface UserService {
     User createUser(User user);
     Optional<User> getUserById(Long id);
+    Optional<Long> getUserVersion(Long id);
     List<User> getAllUsers();
-    User updateUser(Long id, User user);
+    CursorPage<User> getUserPage(String cursor, Integer size);
+    Optional<User> updateUser(Long id, User user, Long expectedVersion);
+    Optional<User> patchUser(Long id, User changes, Long expectedVersion);
     void deleteUser(Long id);
     Optional<User> login(String email, String password);
 }
\ No newline at end of file
@@ -1,27 +1,63 @@
 package com.uni.projectmanager.user;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.uni.projectmanager.concurrent.SingleFlight;
 import com.uni.projectmanager.dao.UserDAO;
+import com.uni.projectmanager.datasource.RoutingContext;
+import com.uni.projectmanager.pagination.CursorPage;
+import com.uni.projectmanager.security.PasswordHasher;
 
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed(value = "service", histogram = true)
 public class UserServiceImpl implements UserService {
 
     @Autowired
     private UserDAO userDAO;
 
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    // Concurrent lookups of the same user share one query
+    private SingleFlight<Long, Optional<User>> userLoads;
+
+    @PostConstruct
+    void init() {
+        userLoads = new SingleFlight<>("users", meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
     @Override
     public User createUser(User user) {
+        if (user.getPassword() != null) {
+            user.setPassword(passwordHasher.hash(user.getPassword()));
+        }
         return userDAO.save(user);
     }
 
     @Override
     public Optional<User> getUserById(Long id) {
-        return userDAO.findById(id);
+        // A client pinned to the primary after a write must not share a load that may read a lagging replica
+        if (RoutingContext.isPrimaryForced()) {
+            return userDAO.findById(id);
+        }
+        return userLoads.load(id, () -> userDAO.findById(id));
+    }
+
+    @Override
+    public Optional<Long> getUserVersion(Long id) {
+        return userDAO.findVersionById(id);
     }
 
     @Override
@@ -30,27 +66,58 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public User updateUser(Long id, User user) {
-        User existingUser = userDAO.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
-        existingUser.setName(user.getName());
-        existingUser.setEmail(user.getEmail());
+    public CursorPage<User> getUserPage(String cursor, Integer size) {
+        Long afterId = CursorPage.decode(cursor);
+        int limit = CursorPage.clampSize(size);
+        List<User> rows = userDAO.findPage(afterId, limit + 1);
+        return CursorPage.of(rows, limit, User::getId, userDAO.estimateCount());
+    }
+
+    @Override
+    public Optional<User> updateUser(Long id, User user, Long expectedVersion) {
+        hashPassword(user);
+        Optional<User> updated = userDAO.update(id, expectedVersion, user, false);
+        userLoads.forget(id);
+        return updated;
+    }
+
+    @Override
+    public Optional<User> patchUser(Long id, User changes, Long expectedVersion) {
+        hashPassword(changes);
+        Optional<User> updated = userDAO.update(id, expectedVersion, changes, true);
+        userLoads.forget(id);
+        return updated;
+    }
+
+    // An empty password means "keep the current one"
+    private void hashPassword(User user) {
         if (user.getPassword() != null && !user.getPassword().isEmpty()) {
-            existingUser.setPassword(user.getPassword());
+            user.setPassword(passwordHasher.hash(user.getPassword()));
+        } else {
+            user.setPassword(null);
         }
-        return userDAO.save(existingUser);
     }
 
     @Override
     public void deleteUser(Long id) {
         userDAO.deleteById(id);
+        userLoads.forget(id);
     }
 
     @Override
     public Optional<User> login(String email, String password) {
         Optional<User> user = userDAO.findByEmail(email);
-        if (user.isPresent() && user.get().getPassword().equals(password)) {
-            return user;
+        // Unknown emails are checked too, against no password, so they take as long as a wrong password
+        String storedPassword = user.map(User::getPassword).orElse(null);
+        if (!passwordHasher.matches(password, storedPassword)) {
+            return Optional.empty();
+        }
+        // Upgrade plaintext passwords and hashes made with an older work factor. The update does not touch the
+        // version, so it cannot fail the login; if the password changed meanwhile, the new one is kept
+        if (passwordHasher.needsRehash(storedPassword)) {
+            userDAO.replacePassword(user.get().getId(), storedPassword, passwordHasher.hash(password));
+            userLoads.forget(user.get().getId());
         }
-        return Optional.empty();
+        return user;
     }
 }
\ No newline at end of file
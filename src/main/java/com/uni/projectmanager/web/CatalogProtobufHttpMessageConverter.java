@@ -0,0 +1,189 @@
+package com.uni.projectmanager.web;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.uni.projectmanager.product.Product;
+import com.uni.projectmanager.user.User;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+/**
+ * Writes products, users and lists of either as {@code application/x-protobuf}, using
+ * the messages in {@code src/main/proto/catalog.proto}. Fields are encoded directly
+ * with {@link CodedOutputStream} rather than through generated classes, so there is no
+ * copy into message objects and no protoc step in the build. Write-only: request
+ * bodies stay JSON.
+ */
+public class CatalogProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    // Field numbers from catalog.proto
+    private static final int LIST_ITEM = 1;
+    private static final int ID = 1;
+    private static final int NAME = 2;
+    private static final int PRODUCT_PRICE = 3;
+    private static final int PRODUCT_VERSION = 4;
+    private static final int USER_EMAIL = 3;
+    private static final int USER_VERSION = 4;
+
+    public CatalogProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Product.class.isAssignableFrom(clazz) || User.class.isAssignableFrom(clazz)
+                || Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        if (!isEncodable(value)) {
+            throw new HttpMessageNotWritableException(
+                    "Only products and users can be written as protobuf, not " + value.getClass().getName());
+        }
+        write(value, outputMessage.getBody());
+    }
+
+    /**
+     * Encodes a {@link Product}, a {@link User}, or a collection of either as the
+     * matching message. An empty collection encodes to zero bytes, which is a valid
+     * empty {@code ProductList} and {@code UserList} alike.
+     */
+    public static void write(Object value, OutputStream out) throws IOException {
+        CodedOutputStream coded = CodedOutputStream.newInstance(out);
+        if (value instanceof Product product) {
+            writeProduct(coded, product);
+        } else if (value instanceof User user) {
+            writeUser(coded, user);
+        } else {
+            for (Object item : (Collection<?>) value) {
+                coded.writeTag(LIST_ITEM, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                if (item instanceof Product product) {
+                    coded.writeUInt32NoTag(productSize(product));
+                    writeProduct(coded, product);
+                } else {
+                    User user = (User) item;
+                    coded.writeUInt32NoTag(userSize(user));
+                    writeUser(coded, user);
+                }
+            }
+        }
+        coded.flush();
+    }
+
+    private static boolean isEncodable(Object value) {
+        if (value instanceof Product || value instanceof User) {
+            return true;
+        }
+        if (!(value instanceof Collection<?> items)) {
+            return false;
+        }
+        // A list must hold a single message type, or it cannot be decoded as either list
+        Class<?> type = null;
+        for (Object item : items) {
+            if (!(item instanceof Product) && !(item instanceof User)) {
+                return false;
+            }
+            Class<?> itemType = item instanceof Product ? Product.class : User.class;
+            if (type != null && type != itemType) {
+                return false;
+            }
+            type = itemType;
+        }
+        return true;
+    }
+
+    // proto3 leaves default values off the wire; price is an optional field so 0.0 is still sent
+
+    private static void writeProduct(CodedOutputStream out, Product product) throws IOException {
+        if (isSet(product.getId())) {
+            out.writeInt64(ID, product.getId());
+        }
+        if (isSet(product.getName())) {
+            out.writeString(NAME, product.getName());
+        }
+        if (product.getPrice() != null) {
+            out.writeDouble(PRODUCT_PRICE, product.getPrice());
+        }
+        if (isSet(product.getVersion())) {
+            out.writeInt64(PRODUCT_VERSION, product.getVersion());
+        }
+    }
+
+    private static int productSize(Product product) {
+        int size = 0;
+        if (isSet(product.getId())) {
+            size += CodedOutputStream.computeInt64Size(ID, product.getId());
+        }
+        if (isSet(product.getName())) {
+            size += CodedOutputStream.computeStringSize(NAME, product.getName());
+        }
+        if (product.getPrice() != null) {
+            size += CodedOutputStream.computeDoubleSize(PRODUCT_PRICE, product.getPrice());
+        }
+        if (isSet(product.getVersion())) {
+            size += CodedOutputStream.computeInt64Size(PRODUCT_VERSION, product.getVersion());
+        }
+        return size;
+    }
+
+    private static void writeUser(CodedOutputStream out, User user) throws IOException {
+        if (isSet(user.getId())) {
+            out.writeInt64(ID, user.getId());
+        }
+        if (isSet(user.getName())) {
+            out.writeString(NAME, user.getName());
+        }
+        if (isSet(user.getEmail())) {
+            out.writeString(USER_EMAIL, user.getEmail());
+        }
+        if (isSet(user.getVersion())) {
+            out.writeInt64(USER_VERSION, user.getVersion());
+        }
+    }
+
+    private static int userSize(User user) {
+        int size = 0;
+        if (isSet(user.getId())) {
+            size += CodedOutputStream.computeInt64Size(ID, user.getId());
+        }
+        if (isSet(user.getName())) {
+            size += CodedOutputStream.computeStringSize(NAME, user.getName());
+        }
+        if (isSet(user.getEmail())) {
+            size += CodedOutputStream.computeStringSize(USER_EMAIL, user.getEmail());
+        }
+        if (isSet(user.getVersion())) {
+            size += CodedOutputStream.computeInt64Size(USER_VERSION, user.getVersion());
+        }
+        return size;
+    }
+
+    private static boolean isSet(Long value) {
+        return value != null && value != 0;
+    }
+
+    private static boolean isSet(String value) {
+        return value != null && !value.isEmpty();
+    }
+}
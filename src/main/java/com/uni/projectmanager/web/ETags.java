@@ -0,0 +1,34 @@
+package com.uni.projectmanager.web;
+
+/**
+ * Strong entity tags derived from an entity's {@code version} column.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * Reads the version out of an {@code If-Match} header. Returns null when the
+     * header is absent or {@code *}, meaning the update is unconditional.
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        // If-Match uses strong comparison, so weak tags never match
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch, e);
+        }
+    }
+}
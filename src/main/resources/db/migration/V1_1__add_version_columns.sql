@@ -0,0 +1,4 @@
+-- Optimistic locking versions behind ETags and conditional updates. Later versions of the application may
+-- already have added the columns through ddl-auto=update, or failed to on tables that had rows
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
@@ -0,0 +1,10 @@
+-- Outbox behind GET /api/products/changes; ddl-auto=update created it on databases baselined at V1
+CREATE TABLE IF NOT EXISTS product_changes (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    product_id bigint NOT NULL,
+    change_type varchar(16) NOT NULL CHECK (change_type IN ('CREATED', 'UPDATED', 'DELETED')),
+    product_version bigint,
+    payload text,
+    created_at timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,20 @@
+-- Schema as Hibernate's ddl-auto=update created it for the first version of the application. Databases that
+-- version created already have it and are baselined at V1 instead (spring.flyway.baseline-on-migrate), so
+-- every later change goes in a migration of its own and must also apply to such a database
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE products_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE users (
+    id bigint NOT NULL,
+    email varchar(255),
+    name varchar(255),
+    password varchar(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE products (
+    id bigint NOT NULL,
+    name varchar(255),
+    price float(53),
+    PRIMARY KEY (id)
+);
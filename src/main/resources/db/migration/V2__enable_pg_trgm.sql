@@ -0,0 +1,2 @@
+-- Trigram operator classes for the product name index in V3
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
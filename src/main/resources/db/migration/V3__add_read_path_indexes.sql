@@ -0,0 +1,18 @@
+-- Built CONCURRENTLY so existing tables stay writable while the indexes build; Flyway runs this script
+-- outside a transaction. IF NOT EXISTS covers databases where the application created them at startup before migrations existed.
+-- Fails if two users share an email; remove the duplicates and run the migration again
+
+-- Login: UserRepository.findByEmail
+-- A failed concurrent build leaves an INVALID index behind that IF NOT EXISTS would then accept, so it is
+-- always rebuilt; on a fresh or already migrated database this only costs one build of a unique index
+DROP INDEX CONCURRENTLY IF EXISTS users_email_key;
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS users_email_key ON users (email);
+
+-- GET /api/products/search: price ranges and name prefixes, in keyset order
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_price ON products (price, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_name ON products (name, id);
+-- Case-insensitive contains as well as prefix matches on lower(name)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_name_trgm ON products USING gin (lower(name) gin_trgm_ops);
+
+-- Retention pruning of the product change outbox
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_changes_created_at ON product_changes (created_at);
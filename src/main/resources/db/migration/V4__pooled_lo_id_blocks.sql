@@ -0,0 +1,5 @@
+-- Each sequence call now reserves a block of 1000 ids starting at the value returned (ids.strategy=pooled-lo,
+-- ids.block-size). The previous version treated values as the end of a block of 50, so stop all nodes running
+-- it before applying this; afterwards every new block starts above any id handed out before
+ALTER SEQUENCE users_seq INCREMENT BY 1000;
+ALTER SEQUENCE products_seq INCREMENT BY 1000;
@@ -0,0 +1,3 @@
+-- The instance that wrote each change, so its relay can skip changes it already applied when they committed.
+-- Rows written before this are treated as coming from another instance
+ALTER TABLE product_changes ADD COLUMN IF NOT EXISTS origin bigint;
@@ -0,0 +1,71 @@
+package com.uni.projectmanager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * One embedded PostgreSQL for every test that needs the real database, started on
+ * first use and stopped with the JVM. Tests register it with
+ * {@code @DynamicPropertySource} and must not assume the tables start empty.
+ *
+ * <p>Tests of replica routing also register a second instance as the replica. It
+ * has the same schema but does not replicate, so a row read from it shows the read
+ * did not go to the primary.
+ */
+public final class PostgresTestDatabase {
+
+    private static EmbeddedPostgres postgres;
+    private static EmbeddedPostgres replica;
+
+    private PostgresTestDatabase() {
+    }
+
+    public static synchronized void register(DynamicPropertyRegistry registry) {
+        if (postgres == null) {
+            postgres = start();
+        }
+        String url = postgres.getJdbcUrl("postgres", "postgres");
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    /** Registers the primary as {@link #register} does, and a second, migrated instance as its only replica. */
+    public static synchronized void registerWithReplica(DynamicPropertyRegistry registry) {
+        register(registry);
+        if (replica == null) {
+            replica = start();
+            Flyway.configure()
+                    .dataSource(replica.getPostgresDatabase())
+                    .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                    .load()
+                    .migrate();
+        }
+        String url = replica.getJdbcUrl("postgres", "postgres");
+        registry.add("database.replicas.urls", () -> url);
+    }
+
+    private static EmbeddedPostgres start() {
+        EmbeddedPostgres started;
+        try {
+            started = EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                started.close();
+            } catch (IOException e) {
+                // The JVM is exiting anyway
+            }
+        }));
+        return started;
+    }
+}
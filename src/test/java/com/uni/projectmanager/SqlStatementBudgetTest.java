@@ -0,0 +1,99 @@
+package com.uni.projectmanager;
+
+import static com.uni.projectmanager.datasource.SqlProfileMatchers.maxStatements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uni.projectmanager.datasource.SqlProfilingFilter;
+
+/**
+ * Upper bounds on the SQL statements each endpoint runs against a real, migrated
+ * database, so an added round trip fails the build instead of showing up in production.
+ */
+@SpringBootTest(properties = {
+    "products.snapshot.enabled=false",
+    "products.changes.poll-interval=PT1H",
+    "security.rate-limit.enabled=false",
+    "sql.profiling.response-headers=true"})
+@AutoConfigureMockMvc
+class SqlStatementBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    private long createProduct(String name) throws Exception {
+        String body = mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"" + name + "\",\"price\":10.0}"))
+            .andExpect(status().isOk())
+            // Id block, insert, outbox lock and outbox insert
+            .andExpect(maxStatements(4))
+            .andReturn().getResponse().getContentAsString();
+        JsonNode product = objectMapper.readTree(body);
+        return product.get("id").asLong();
+    }
+
+    @Test
+    void testCreateProductBudget() throws Exception {
+        createProduct("Budget Product");
+    }
+
+    @Test
+    void testGetProductBudget() throws Exception {
+        long id = createProduct("Read Product");
+
+        mockMvc.perform(get("/api/products/" + id))
+            .andExpect(status().isOk())
+            .andExpect(header().string(SqlProfilingFilter.STATEMENTS_HEADER, "1"))
+            .andExpect(maxStatements(1));
+
+        // Served from the product cache
+        mockMvc.perform(get("/api/products/" + id))
+            .andExpect(status().isOk())
+            .andExpect(maxStatements(0));
+    }
+
+    @Test
+    void testDeleteProductBudget() throws Exception {
+        long id = createProduct("Deleted Product");
+
+        // Load, delete, outbox lock and outbox insert
+        mockMvc.perform(delete("/api/products/" + id))
+            .andExpect(status().isOk())
+            .andExpect(maxStatements(4));
+    }
+
+    @Test
+    void testUserBudgets() throws Exception {
+        String body = mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Budget User\",\"email\":\"budget@example.com\",\"password\":\"password123\"}"))
+            .andExpect(status().isOk())
+            .andExpect(maxStatements(2))
+            .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("id").asLong();
+
+        mockMvc.perform(get("/api/users/" + id))
+            .andExpect(status().isOk())
+            .andExpect(maxStatements(1));
+    }
+}
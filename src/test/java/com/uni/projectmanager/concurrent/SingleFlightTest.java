@@ -0,0 +1,113 @@
+package com.uni.projectmanager.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", new SimpleMeterRegistry());
+
+    @Test
+    void testConcurrentCallersShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> singleFlight.load(1L, () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return new String("user 1");
+                })));
+            }
+            // Hold the load until every caller has either started it or joined it
+            while (singleFlight.loadCount() + singleFlight.coalescedCount() < 8) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            String first = results.get(0).get();
+            for (Future<String> result : results) {
+                assertSame(first, result.get());
+            }
+            assertEquals(1, calls.get());
+            assertEquals(1, singleFlight.loadCount());
+            assertEquals(7, singleFlight.coalescedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailureReachesEveryCallerAndIsNotKept() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("database down");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.load(1L, () -> {
+                await(release);
+                throw failure;
+            }));
+            while (singleFlight.loadCount() == 0) {
+                Thread.sleep(5);
+            }
+            Future<String> follower = executor.submit(() -> singleFlight.load(1L, () -> "not called while the load runs"));
+            while (singleFlight.coalescedCount() == 0) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertSame(failure, assertThrows(ExecutionException.class, leader::get).getCause());
+            assertSame(failure, assertThrows(ExecutionException.class, follower::get).getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("loaded again", singleFlight.load(1L, () -> "loaded again"));
+    }
+
+    @Test
+    void testForgetLetsTheNextCallerStartAFreshLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stale = executor.submit(() -> singleFlight.load(1L, () -> {
+                await(release);
+                return "before write";
+            }));
+            while (singleFlight.loadCount() == 0) {
+                Thread.sleep(5);
+            }
+            singleFlight.forget(1L);
+
+            assertEquals("after write", singleFlight.load(1L, () -> "after write"));
+            release.countDown();
+            assertEquals("before write", stale.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.uni.projectmanager.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReplicaDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica1;
+    private DataSource replica2;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = dataSource("primary");
+        replica1 = dataSource("replica-1");
+        replica2 = dataSource("replica-2");
+    }
+
+    @AfterEach
+    void tearDown() {
+        RoutingContext.clear();
+    }
+
+    // Connections are named after their data source; the routing proxy passes toString through
+    private static DataSource dataSource(String name) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> {
+            Connection connection = mock(Connection.class, name);
+            when(connection.createStatement()).thenReturn(mock(Statement.class));
+            return connection;
+        });
+        return dataSource;
+    }
+
+    private ReplicaDataSource routing(ReplicaDataSource.Selection selection) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        return new ReplicaDataSource(primary, replicas, selection, null);
+    }
+
+    @Test
+    void testRoundRobinAlternatesReplicas() throws SQLException {
+        ReplicaDataSource routing = routing(ReplicaDataSource.Selection.ROUND_ROBIN);
+
+        assertEquals("replica-1", routing.getConnection().toString());
+        assertEquals("replica-2", routing.getConnection().toString());
+        assertEquals("replica-1", routing.getConnection().toString());
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void testLeastConnectionsPrefersLessBusyReplica() throws SQLException {
+        ReplicaDataSource routing = routing(ReplicaDataSource.Selection.LEAST_CONNECTIONS);
+        Connection held = routing.getConnection();
+        String busy = held.toString();
+
+        // While one connection is held, its replica is never the least busy
+        for (int i = 0; i < 3; i++) {
+            Connection connection = routing.getConnection();
+            assertFalse(connection.toString().equals(busy));
+            connection.close();
+        }
+
+        held.close();
+        Connection afterRelease = routing.getConnection();
+        Connection next = routing.getConnection();
+        // With both idle again, the rotating start point spreads connections over both
+        assertFalse(afterRelease.toString().equals(next.toString()));
+    }
+
+    @Test
+    void testFailedReplicaIsEjectedAndReadmitted() throws SQLException {
+        ReplicaDataSource routing = routing(ReplicaDataSource.Selection.ROUND_ROBIN);
+        doThrow(new SQLException("connection refused")).when(replica1).getConnection();
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica-2", routing.getConnection().toString());
+        }
+        assertFalse(routing.isHealthy("replica-1"));
+        verify(replica1, times(1)).getConnection();
+
+        doReturn(mock(Connection.class, RETURNS_DEEP_STUBS)).when(replica1).getConnection();
+        routing.checkHealth();
+        assertTrue(routing.isHealthy("replica-1"));
+    }
+
+    @Test
+    void testFallsBackToPrimaryWithoutHealthyReplicas() throws SQLException {
+        ReplicaDataSource routing = routing(ReplicaDataSource.Selection.ROUND_ROBIN);
+        doThrow(new SQLException("down")).when(replica1).getConnection();
+        doThrow(new SQLException("down")).when(replica2).getConnection();
+
+        assertEquals("primary", routing.getConnection().toString());
+        assertEquals("primary", routing.getConnection().toString());
+        // Both were ejected by the first attempt, so the second went straight to the primary
+        verify(replica1, times(1)).getConnection();
+        verify(replica2, times(1)).getConnection();
+    }
+
+    @Test
+    void testForcedPrimaryBypassesReplicas() throws SQLException {
+        ReplicaDataSource routing = routing(ReplicaDataSource.Selection.ROUND_ROBIN);
+
+        Connection connection = RoutingContext.onPrimary(() -> {
+            try {
+                return routing.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals("primary", connection.toString());
+        assertFalse(RoutingContext.isPrimaryForced());
+        verifyNoInteractions(replica1, replica2);
+    }
+}
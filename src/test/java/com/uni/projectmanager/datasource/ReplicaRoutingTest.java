@@ -0,0 +1,67 @@
+package com.uni.projectmanager.datasource;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uni.projectmanager.PostgresTestDatabase;
+
+/**
+ * Routing against two embedded PostgreSQL instances standing in for a primary and
+ * a replica. The replica does not replicate, so a row written through the API is
+ * only found when the read goes to the primary.
+ */
+@SpringBootTest(properties = {
+    "products.snapshot.enabled=false",
+    "products.changes.poll-interval=PT1H",
+    "security.rate-limit.enabled=false",
+    "database.replicas.max-lag=PT0S"})
+@AutoConfigureMockMvc
+class ReplicaRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.registerWithReplica(registry);
+    }
+
+    private static RequestPostProcessor client(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    @Test
+    void testReadsGoToReplicaExceptForTheWriter() throws Exception {
+        String body = mockMvc.perform(post("/api/products").with(client("10.0.0.1"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Replicated Product\",\"price\":10.0}"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("id").asLong();
+
+        // Another client's cache load reads the replica, which never received the row
+        mockMvc.perform(get("/api/products/" + id).with(client("10.0.0.2")))
+            .andExpect(status().isNotFound());
+
+        // The writer reads its own write from the primary
+        mockMvc.perform(get("/api/products/" + id).with(client("10.0.0.1")))
+            .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,28 @@
+package com.uni.projectmanager.datasource;
+
+import static org.springframework.test.util.AssertionErrors.assertNotNull;
+import static org.springframework.test.util.AssertionErrors.fail;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * MockMvc expectations on the SQL a request ran, for catching extra round trips:
+ * {@code mockMvc.perform(get("/api/products/1")).andExpect(maxStatements(1))}.
+ * Needs {@link SqlProfilingFilter} in the MockMvc filter chain and a real data source,
+ * as mocked DAOs run no SQL at all.
+ */
+public final class SqlProfileMatchers {
+
+    private SqlProfileMatchers() {
+    }
+
+    public static ResultMatcher maxStatements(int max) {
+        return result -> {
+            SqlProfile profile = (SqlProfile) result.getRequest().getAttribute(SqlProfile.REQUEST_ATTRIBUTE);
+            assertNotNull("Request was not profiled; is sql.profiling.enabled false?", profile);
+            if (profile.getStatements() > max) {
+                fail("Expected at most " + max + " SQL statements but ran " + profile);
+            }
+        };
+    }
+}
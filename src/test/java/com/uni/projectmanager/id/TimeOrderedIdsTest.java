@@ -0,0 +1,78 @@
+package com.uni.projectmanager.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class TimeOrderedIdsTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeOrderedIds.EPOCH_MILLIS + 5_000);
+
+    @Test
+    void testIdsCarryTimeNodeAndCounter() {
+        TimeOrderedIds ids = new TimeOrderedIds(3, clock::get);
+
+        long first = ids.next();
+        long second = ids.next();
+
+        assertEquals(5_000, first >>> (TimeOrderedIds.NODE_BITS + TimeOrderedIds.COUNTER_BITS));
+        assertEquals(3, (first >>> TimeOrderedIds.COUNTER_BITS) & TimeOrderedIds.MAX_NODE_ID);
+        assertEquals(first + 1, second);
+
+        clock.addAndGet(1);
+        assertTrue(ids.next() > second);
+    }
+
+    @Test
+    void testNodesNeverCollide() {
+        long fromNodeOne = new TimeOrderedIds(1, clock::get).next();
+        long fromNodeTwo = new TimeOrderedIds(2, clock::get).next();
+
+        assertTrue(fromNodeOne != fromNodeTwo);
+        // Within the same millisecond, ids sort by node
+        assertTrue(fromNodeOne < fromNodeTwo);
+    }
+
+    @Test
+    void testCounterOverflowBorrowsTheNextMillisecond() {
+        TimeOrderedIds ids = new TimeOrderedIds(0, clock::get);
+        long previous = ids.next();
+        for (int i = 1; i < 1000; i++) {
+            long id = ids.next();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        // 1000 ids at 128 per millisecond run 7 milliseconds ahead of the clock
+        assertEquals(5_007, previous >>> (TimeOrderedIds.NODE_BITS + TimeOrderedIds.COUNTER_BITS));
+    }
+
+    @Test
+    @Timeout(5)
+    void testIdsKeepIncreasingWhenTheClockStepsBack() {
+        TimeOrderedIds ids = new TimeOrderedIds(0, clock::get);
+        long before = ids.next();
+        clock.addAndGet(-2_000);
+
+        // Issued at once, and still increasing, while the clock is behind
+        long previous = before;
+        for (int i = 0; i < 1000; i++) {
+            long id = ids.next();
+            assertTrue(id > previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void testIdsFitInAJavaScriptNumber() {
+        clock.set(TimeOrderedIds.EPOCH_MILLIS + (1L << 41) - 1);
+        long last = new TimeOrderedIds(TimeOrderedIds.MAX_NODE_ID, clock::get).next();
+
+        assertTrue(last < (1L << 53));
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIds(TimeOrderedIds.MAX_NODE_ID + 1));
+    }
+}
@@ -0,0 +1,123 @@
+package com.uni.projectmanager.product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class PriceIndexTest {
+
+    private static Product product(long id, Double price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setPrice(price);
+        return product;
+    }
+
+    private static Product product(long id, Double price, long version) {
+        Product product = product(id, price);
+        product.setVersion(version);
+        return product;
+    }
+
+    @Test
+    void testCountsTopNAndPercentiles() {
+        PriceIndex index = new PriceIndex();
+        index.putAll(List.of(product(1, 30.0), product(2, 10.0), product(3, 20.0), product(4, 10.0), product(5, 50.0)));
+
+        assertEquals(5, index.size());
+        assertEquals(3, index.countBetween(10.0, 20.0));
+        assertEquals(0, index.countBetween(21.0, 29.0));
+        assertEquals(List.of(2L, 4L), index.cheapest(2).stream().map(PriceIndex.PricePoint::getId).collect(Collectors.toList()));
+        assertEquals(List.of(5L, 1L), index.mostExpensive(2).stream().map(PriceIndex.PricePoint::getId).collect(Collectors.toList()));
+        assertEquals(20.0, index.percentile(50));
+        assertEquals(50.0, index.percentile(95));
+        assertEquals(10.0, index.percentile(0));
+    }
+
+    @Test
+    void testUpdatesMoveAndRemoveEntries() {
+        PriceIndex index = new PriceIndex();
+        index.putAll(List.of(product(1, 10.0), product(2, 20.0), product(3, 30.0)));
+
+        index.put(product(1, 40.0));
+        index.remove(2L);
+        // The last entry for an id in one batch wins; a missing price removes it
+        index.putAll(List.of(product(4, 5.0), product(4, 25.0), product(3, null)));
+
+        assertEquals(2, index.size());
+        assertEquals(List.of(4L, 1L), index.cheapest(10).stream().map(PriceIndex.PricePoint::getId).collect(Collectors.toList()));
+        assertEquals(25.0, index.cheapest(1).get(0).getPrice());
+    }
+
+    @Test
+    void testMatchesBruteForceAfterRandomWrites() {
+        PriceIndex index = new PriceIndex();
+        Double[] prices = new Double[200];
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            List<Product> batch = random.ints(20, 0, prices.length)
+                    .mapToObj(id -> product(id, random.nextInt(10) == 0 ? null : (double) random.nextInt(100)))
+                    .collect(Collectors.toList());
+            index.putAll(batch);
+            for (Product product : batch) {
+                prices[product.getId().intValue()] = product.getPrice();
+            }
+        }
+
+        long expected = java.util.Arrays.stream(prices).filter(p -> p != null && p >= 25 && p <= 75).count();
+        assertEquals(expected, index.countBetween(25, 75));
+        List<PriceIndex.PricePoint> all = index.cheapest(prices.length);
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getPrice() <= all.get(i).getPrice());
+        }
+    }
+
+    @Test
+    void testOlderVersionsAndChangesAfterDeleteAreDropped() {
+        PriceIndex index = new PriceIndex();
+        index.put(product(1, 20.0, 2));
+        // Committed earlier, applied later
+        index.put(product(1, 10.0, 1));
+        assertEquals(20.0, index.cheapest(1).get(0).getPrice());
+
+        // An older change does not bring back a product whose price was cleared
+        index.put(product(1, null, 3));
+        index.put(product(1, 30.0, 2));
+        assertEquals(0, index.size());
+
+        index.put(product(2, 5.0, 0));
+        index.remove(2L);
+        index.put(product(2, 15.0, 1));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testConcurrentWritersKeepTheNewestVersion() throws Exception {
+        PriceIndex index = new PriceIndex();
+        int products = 100;
+        int versions = 50;
+        List<Thread> writers = new java.util.ArrayList<>();
+        for (int writer = 0; writer < 4; writer++) {
+            int offset = writer;
+            writers.add(Thread.ofPlatform().start(() -> {
+                // Each writer applies every fourth version, so versions arrive out of order across writers
+                for (int version = versions - 1 - offset; version >= 0; version -= 4) {
+                    for (int id = 0; id < products; id++) {
+                        index.put(product(id, (double) version, version));
+                    }
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(products, index.size());
+        assertEquals(products, index.countBetween(versions - 1, versions - 1));
+    }
+}
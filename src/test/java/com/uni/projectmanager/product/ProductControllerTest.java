@@ -1,25 +1,54 @@
 package com.uni.projectmanager.product;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.io.ByteArrayInputStream;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+import com.uni.projectmanager.dao.ProductDAO;
+import com.uni.projectmanager.pagination.CursorPage;
 import com.uni.projectmanager.product.Product;
 import com.uni.projectmanager.product.ProductController;
 import com.uni.projectmanager.product.ProductRepository;
+import com.uni.projectmanager.web.CatalogProtobufHttpMessageConverter;
 
-@WebMvcTest(ProductController.class)
+// The change relay and catalog snapshot only run when a test calls them
+@WebMvcTest(controllers = ProductController.class,
+    properties = {"products.changes.poll-interval=PT1H", "products.snapshot.enabled=false"})
+@Import({ProductExporter.class, ProductBulkWriter.class, ProductCache.class, CatalogVersion.class, PriceIndex.class,
+    ProductChangeRelay.class, CatalogSnapshot.class})
 class ProductControllerTest {
 
     @Autowired
@@ -28,9 +57,44 @@ class ProductControllerTest {
     @MockBean
     private ProductRepository productRepository;
 
+    @MockBean
+    private ProductDAO productDAO;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private ProductChangeLog productChangeLog;
+
+    @MockBean
+    private ProductChangeRepository productChangeRepository;
+
+    @MockBean
+    private ProductImporter productImporter;
+
+    @Autowired
+    private ProductChangeRelay productChangeRelay;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        productCache.invalidateAll();
+        catalogSnapshot.clear();
+        // Relay tests advance the shared relay past the outbox rows they stub
+        productChangeRelay.seek(0);
+    }
+
     @Test
     void testGetAllProducts() throws Exception {
         Product product1 = new Product();
@@ -51,6 +115,262 @@ class ProductControllerTest {
                .andExpect(jsonPath("$[1].name").value("Product B"));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetAllProductsFromSnapshot() throws Exception {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Product A");
+        product.setPrice(10.0);
+        doAnswer(invocation -> {
+            Consumer<Product> action = invocation.getArgument(0);
+            action.accept(product);
+            return null;
+        }).when(productDAO).forEach(any(Consumer.class));
+        catalogSnapshot.rebuild();
+        String expected = objectMapper.writeValueAsString(List.of(product));
+
+        MvcResult plain = mockMvc.perform(get("/api/products"))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+               .andExpect(content().string(expected))
+               .andReturn();
+        MvcResult gzipped = mockMvc.perform(get("/api/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+               .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+               .andReturn();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+            assertEquals(expected, new String(in.readAllBytes(), "UTF-8"));
+        }
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, plain.getResponse().getHeader(HttpHeaders.ETAG)))
+               .andExpect(status().isNotModified());
+        // No query: the list came from the snapshot
+        verify(productRepository, never()).findAll();
+
+        // Binary formats are still serialized per request
+        when(productRepository.findAll()).thenReturn(List.of(product));
+        mockMvc.perform(get("/api/products").accept(MediaType.APPLICATION_CBOR))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+        verify(productRepository).findAll();
+    }
+
+    @Test
+    void testGetAllProductsAsCbor() throws Exception {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Product A");
+        product.setPrice(10.0);
+        when(productRepository.findAll()).thenReturn(List.of(product));
+
+        MvcResult result = mockMvc.perform(get("/api/products").accept(MediaType.APPLICATION_CBOR))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+               .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+               .andReturn();
+
+        Product[] decoded = new CBORMapper().readValue(result.getResponse().getContentAsByteArray(), Product[].class);
+        assertEquals(1, decoded.length);
+        assertEquals("Product A", decoded[0].getName());
+        assertEquals(10.0, decoded[0].getPrice());
+    }
+
+    @Test
+    void testGetProductByIdAsProtobuf() throws Exception {
+        Product product = new Product();
+        product.setId(7L);
+        product.setName("Product A");
+        product.setPrice(0.0);
+        when(productRepository.findById(7L)).thenReturn(Optional.of(product));
+
+        MvcResult result = mockMvc.perform(get("/api/products/7").accept(CatalogProtobufHttpMessageConverter.PROTOBUF))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(CatalogProtobufHttpMessageConverter.PROTOBUF))
+               .andReturn();
+
+        CodedInputStream in = CodedInputStream.newInstance(result.getResponse().getContentAsByteArray());
+        assertEquals(1, WireFormat.getTagFieldNumber(in.readTag()));
+        assertEquals(7L, in.readInt64());
+        assertEquals(2, WireFormat.getTagFieldNumber(in.readTag()));
+        assertEquals("Product A", in.readString());
+        // price is an optional field, so a zero price is still on the wire
+        assertEquals(3, WireFormat.getTagFieldNumber(in.readTag()));
+        assertEquals(0.0, in.readDouble());
+        assertEquals(0, in.readTag());
+
+        // JSON stays the default when the client accepts anything
+        mockMvc.perform(get("/api/products/7").accept(MediaType.ALL))
+               .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void testGetProductsPage() throws Exception {
+        Product product1 = new Product();
+        product1.setId(1L);
+        product1.setName("Product A");
+        product1.setPrice(10.0);
+
+        Product product2 = new Product();
+        product2.setId(2L);
+        product2.setName("Product B");
+        product2.setPrice(20.0);
+
+        when(productDAO.findPage(null, 2)).thenReturn(Arrays.asList(product1, product2));
+        when(productDAO.estimateCount()).thenReturn(2L);
+
+        mockMvc.perform(get("/api/products").param("size", "1"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items.length()").value(1))
+               .andExpect(jsonPath("$.items[0].name").value("Product A"))
+               .andExpect(jsonPath("$.nextCursor").value(CursorPage.encode(1L)))
+               .andExpect(jsonPath("$.approximateTotal").value(2));
+
+        when(productDAO.findPage(1L, 2)).thenReturn(Arrays.asList(product2));
+
+        mockMvc.perform(get("/api/products").param("cursor", CursorPage.encode(1L)).param("size", "1"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items[0].name").value("Product B"))
+               .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testGetProductsPageInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/products").param("cursor", "not-a-cursor"))
+               .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSearchProducts() throws Exception {
+        Product product = new Product();
+        product.setId(3L);
+        product.setName("Gadget");
+        product.setPrice(25.0);
+
+        when(productDAO.search(argThat(search -> "gad".equals(search.getName())
+                && search.getNameMatch() == ProductSearch.NameMatch.PREFIX
+                && search.getMinPrice() == 10.0
+                && search.getMaxPrice() == null
+                && search.getSort().equals(Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id")))
+                && search.getLimit() == 5)))
+            .thenReturn(List.of(product));
+
+        mockMvc.perform(get("/api/products/search?name=gad&match=prefix&minPrice=10&sort=-price&limit=5"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[0].name").value("Gadget"));
+
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void testSearchProductsInvalidParameters() throws Exception {
+        mockMvc.perform(get("/api/products/search?sort=id"))
+               .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/search?minPrice=20&maxPrice=10"))
+               .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testPriceStatsAnswerFromIndex() throws Exception {
+        doAnswer(invocation -> {
+            ProductDAO.PriceVisitor action = invocation.getArgument(0);
+            action.visit(2L, 5.0, 0L);
+            action.visit(1L, 10.0, 0L);
+            action.visit(3L, 20.0, 0L);
+            return null;
+        }).when(productDAO).forEachPrice(any());
+        priceIndex.load();
+
+        mockMvc.perform(get("/api/products/stats/price-count?min=5&max=10"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.count").value(2));
+        mockMvc.perform(get("/api/products/stats/price-top?n=1&order=desc"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[0].id").value(3))
+               .andExpect(jsonPath("$[0].price").value(20.0));
+        mockMvc.perform(get("/api/products/stats/price-percentiles?p=50,99.5"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.p50").value(10.0))
+               .andExpect(jsonPath("$['p99.5']").value(20.0));
+        mockMvc.perform(get("/api/products/stats/price-count?min=10&max=5"))
+               .andExpect(status().isBadRequest());
+
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportProducts() throws Exception {
+        Product product1 = new Product();
+        product1.setId(1L);
+        product1.setName("Product A");
+        product1.setPrice(10.0);
+
+        Product product2 = new Product();
+        product2.setId(2L);
+        product2.setName("Product B");
+        product2.setPrice(20.0);
+
+        doAnswer(invocation -> {
+            Consumer<Product> action = invocation.getArgument(0);
+            action.accept(product1);
+            action.accept(product2);
+            return null;
+        }).when(productDAO).forEach(any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/products/export"))
+               .andExpect(request().asyncStarted())
+               .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+               .andExpect(content().string(
+                   objectMapper.writeValueAsString(product1) + "\n" + objectMapper.writeValueAsString(product2) + "\n"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportProductsParallel() throws Exception {
+        Product product1 = new Product();
+        product1.setId(1L);
+        product1.setName("Product A");
+        product1.setPrice(10.0);
+
+        Product product2 = new Product();
+        product2.setId(8L);
+        product2.setName("Product B");
+        product2.setPrice(20.0);
+
+        when(productDAO.findMinId()).thenReturn(1L);
+        when(productDAO.findMaxId()).thenReturn(8L);
+        doAnswer(invocation -> {
+            long fromId = invocation.getArgument(0);
+            long toId = invocation.getArgument(1);
+            Consumer<Product> action = invocation.getArgument(2);
+            for (Product product : Arrays.asList(product1, product2)) {
+                if (product.getId() >= fromId && product.getId() < toId) {
+                    action.accept(product);
+                }
+            }
+            return null;
+        }).when(productDAO).forEachInRange(anyLong(), anyLong(), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/products/export").param("parallelism", "2"))
+               .andExpect(request().asyncStarted())
+               .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+               .andExpect(status().isOk())
+               .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        Arrays.sort(lines);
+        assertArrayEquals(new String[] {
+            objectMapper.writeValueAsString(product1), objectMapper.writeValueAsString(product2)
+        }, lines);
+    }
+
     @Test
     void testGetProductById() throws Exception {
         Product product = new Product();
@@ -65,6 +385,83 @@ class ProductControllerTest {
                .andExpect(jsonPath("$.name").value("Product A"));
     }
 
+    @Test
+    void testGetProductByIdNotModified() throws Exception {
+        when(productDAO.findVersionById(1L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+               .andExpect(status().isNotModified())
+               .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+
+        verify(productRepository, never()).findById(1L);
+    }
+
+    @Test
+    void testGetAllProductsNotModifiedUntilCatalogChanges() throws Exception {
+        when(productRepository.findAll()).thenReturn(List.of());
+        String etag = mockMvc.perform(get("/api/products"))
+               .andExpect(status().isOk())
+               .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+               .andExpect(status().isNotModified());
+
+        Product product = new Product();
+        product.setName("Product A");
+        product.setPrice(10.0);
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+        mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(product)))
+               .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+               .andExpect(status().isOk());
+    }
+
+    @Test
+    void testGetProductByIdIsCached() throws Exception {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Product A");
+        product.setPrice(10.0);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        long hitsBefore = (Long) productCache.stats().get("hitCount");
+
+        mockMvc.perform(get("/api/products/1"))
+               .andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/1"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.name").value("Product A"));
+
+        verify(productRepository, times(1)).findById(1L);
+        assertEquals(hitsBefore + 1, (Long) productCache.stats().get("hitCount"));
+        mockMvc.perform(get("/api/products/cache/stats"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.size").value(1));
+    }
+
+    @Test
+    void testDeleteProductInvalidatesCache() throws Exception {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Product A");
+        product.setPrice(10.0);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        mockMvc.perform(get("/api/products/1"))
+               .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/products/1"))
+               .andExpect(status().isOk());
+
+        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/products/1"))
+               .andExpect(status().isNotFound());
+    }
+
     @Test
     void testCreateProduct() throws Exception {
         Product product = new Product();
@@ -78,27 +475,164 @@ class ProductControllerTest {
                 .content(objectMapper.writeValueAsString(product)))
                .andExpect(status().isOk())
                .andExpect(jsonPath("$.name").value("Product A"));
+
+        verify(productChangeLog).record(ProductChange.Type.CREATED, product);
     }
 
     @Test
-    void testUpdateProduct() throws Exception {
+    @SuppressWarnings("unchecked")
+    void testBulkUpsertProducts() throws Exception {
         Product existingProduct = new Product();
         existingProduct.setId(1L);
         existingProduct.setName("Product A");
         existingProduct.setPrice(10.0);
 
+        when(productDAO.findAllById(any())).thenReturn(Arrays.asList(existingProduct));
+        doAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            for (Product product : products) {
+                if (product.getId() == null) {
+                    product.setId(2L);
+                }
+            }
+            return null;
+        }).when(productDAO).saveBatch(any(List.class));
+
+        String body = "[ { \"id\": 1, \"name\": \"Updated Product A\", \"price\": 15.0 },"
+                + " { \"name\": \"Product B\" },"
+                + " { \"name\": \"Product C\", \"price\": 30.0 } ]";
+
+        mockMvc.perform(post("/api/products/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.updated").value(1))
+               .andExpect(jsonPath("$.created").value(1))
+               .andExpect(jsonPath("$.invalid").value(1))
+               .andExpect(jsonPath("$.items[0].status").value("UPDATED"))
+               .andExpect(jsonPath("$.items[0].id").value(1))
+               .andExpect(jsonPath("$.items[1].status").value("INVALID"))
+               .andExpect(jsonPath("$.items[2].status").value("CREATED"))
+               .andExpect(jsonPath("$.items[2].id").value(2));
+
+        verify(productDAO, times(1)).saveBatch(any(List.class));
+    }
+
+    @Test
+    void testBulkUpsertProductsNdjson() throws Exception {
+        String body = "{ \"name\": \"Product A\", \"price\": 10.0 }\n"
+                + "{ \"name\": \"Product B\", \"price\": 20.0 }\n";
+
+        mockMvc.perform(post("/api/products/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.created").value(2))
+               .andExpect(jsonPath("$.items.length()").value(2));
+    }
+
+    @Test
+    void testImportProductsIsAccepted() throws Exception {
+        ProductImportJob job = new ProductImportJob("job-1", 28);
+        when(productImporter.submit(any())).thenReturn(job);
+
+        mockMvc.perform(post("/api/products/import")
+                .contentType("text/csv")
+                .content("name,price\nProduct A,10.0\n"))
+               .andExpect(status().isAccepted())
+               .andExpect(header().string(HttpHeaders.LOCATION, "/api/products/import/job-1"))
+               .andExpect(jsonPath("$.state").value("QUEUED"))
+               .andExpect(jsonPath("$.bytesTotal").value(28));
+    }
+
+    @Test
+    void testImportProductsRejectedWhenQueueIsFull() throws Exception {
+        when(productImporter.submit(any())).thenThrow(new RejectedExecutionException("Too many product imports are waiting"));
+
+        mockMvc.perform(post("/api/products/import")
+                .contentType("text/csv")
+                .content("name,price\n"))
+               .andExpect(status().isServiceUnavailable())
+               .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void testImportStatusAndErrors() throws Exception {
+        ProductImportJob job = new ProductImportJob("job-1", 28);
+        when(productImporter.find("job-1")).thenReturn(Optional.of(job));
+        when(productImporter.find("unknown")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/products/import/job-1"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.id").value("job-1"))
+               .andExpect(jsonPath("$.rowsRead").value(0));
+        mockMvc.perform(get("/api/products/import/job-1/errors"))
+               .andExpect(status().isConflict());
+        mockMvc.perform(get("/api/products/import/unknown"))
+               .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testUpdateProduct() throws Exception {
         Product updatedProduct = new Product();
+        updatedProduct.setId(1L);
         updatedProduct.setName("Updated Product A");
         updatedProduct.setPrice(15.0);
+        updatedProduct.setVersion(4L);
 
-        when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
-        when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
+        when(productDAO.update(eq(1L), eq(3L), any(Product.class), eq(false))).thenReturn(Optional.of(updatedProduct));
 
         mockMvc.perform(put("/api/products/1")
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(updatedProduct)))
                .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
                .andExpect(jsonPath("$.name").value("Updated Product A"));
+
+        verify(productRepository, never()).findById(1L);
+        verify(productChangeLog).record(ProductChange.Type.UPDATED, updatedProduct);
+    }
+
+    @Test
+    void testPatchProduct() throws Exception {
+        Product patched = new Product();
+        patched.setId(1L);
+        patched.setName("Product A");
+        patched.setPrice(20.0);
+        patched.setVersion(2L);
+
+        when(productDAO.update(eq(1L), isNull(), argThat(p -> p.getName() == null && p.getPrice() == 20.0), eq(true)))
+            .thenReturn(Optional.of(patched));
+
+        mockMvc.perform(patch("/api/products/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\": 20.0}"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.name").value("Product A"))
+               .andExpect(jsonPath("$.price").value(20.0));
+    }
+
+    @Test
+    void testUpdateProductVersionConflict() throws Exception {
+        when(productDAO.update(eq(1L), eq(3L), any(Product.class), eq(true)))
+            .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L));
+
+        mockMvc.perform(patch("/api/products/1")
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\": 20.0}"))
+               .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testUpdateProductNotFound() throws Exception {
+        when(productDAO.update(eq(1L), isNull(), any(Product.class), eq(false))).thenReturn(Optional.empty());
+
+        mockMvc.perform(put("/api/products/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Product A\", \"price\": 10.0}"))
+               .andExpect(status().isNotFound());
     }
 
     @Test
@@ -114,5 +648,133 @@ class ProductControllerTest {
         mockMvc.perform(delete("/api/products/1"))
                .andExpect(status().isOk())
                .andExpect(content().string("Product with id: 1 deleted successfully"));
+
+        verify(productChangeLog).record(ProductChange.Type.DELETED, product);
+    }
+
+    @Test
+    void testChangeFeedStreamsLiveChangesAndResumes() throws Exception {
+        ProductChange created = change(1L, ProductChange.Type.CREATED, "{\"id\":7,\"name\":\"Product A\",\"price\":10.0,\"version\":0}");
+        ProductChange deleted = change(2L, ProductChange.Type.DELETED, null);
+        when(productChangeRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(List.of(created, deleted));
+
+        MvcResult live = mockMvc.perform(get("/api/products/changes").param("since", "0"))
+               .andExpect(request().asyncStarted())
+               .andReturn();
+        productChangeRelay.relay();
+
+        String stream = awaitContent(live, "id:2");
+        assertTrue(stream.contains("id:1\nevent:product-change\ndata:{\"seq\":1,\"type\":\"CREATED\",\"productId\":7,\"version\":0,"
+            + "\"product\":{\"id\":7,\"name\":\"Product A\",\"price\":10.0,\"version\":0}"), stream);
+
+        // A reconnecting client only gets what came after its Last-Event-ID, read from the outbox
+        when(productChangeRepository.findMinId()).thenReturn(1L);
+        when(productChangeRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(eq(1L), eq(2L), any()))
+            .thenReturn(List.of(deleted));
+        MvcResult resumed = mockMvc.perform(get("/api/products/changes").header("Last-Event-ID", "1"))
+               .andExpect(request().asyncStarted())
+               .andReturn();
+
+        stream = awaitContent(resumed, "id:2");
+        assertFalse(stream.contains("id:1\n"), stream);
+        assertTrue(stream.contains("\"type\":\"DELETED\""), stream);
+
+        // Changes pruned from the outbox cannot be replayed
+        when(productChangeRepository.findMinId()).thenReturn(2L);
+        MvcResult reset = mockMvc.perform(get("/api/products/changes").param("since", "0"))
+               .andExpect(request().asyncStarted())
+               .andReturn();
+
+        assertTrue(awaitContent(reset, "event:reset").contains("id:2\n"));
+    }
+
+    @Test
+    void testRelayAppliesChangesFromOtherInstances() {
+        ProductChange updated = change(10L, ProductChange.Type.UPDATED, "{\"id\":8,\"name\":\"Product B\",\"price\":4321.5,\"version\":3}");
+        updated.setProductId(8L);
+        updated.setVersion(3L);
+        when(productChangeRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenReturn(List.of(updated));
+        productChangeRelay.relay();
+
+        assertEquals(1, priceIndex.countBetween(4321.5, 4321.5));
+
+        // A late, older change for the same product is dropped
+        ProductChange stale = change(11L, ProductChange.Type.UPDATED, "{\"id\":8,\"name\":\"Product B\",\"price\":1234.5,\"version\":2}");
+        stale.setProductId(8L);
+        stale.setVersion(2L);
+        when(productChangeRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenReturn(List.of(stale), List.of());
+        productChangeRelay.relay();
+
+        assertEquals(1, priceIndex.countBetween(4321.5, 4321.5));
+        assertEquals(0, priceIndex.countBetween(1234.5, 1234.5));
+    }
+
+    @Test
+    void testRelayEvictsProductsChangedElsewhere() throws Exception {
+        Product product = new Product();
+        product.setId(9L);
+        product.setName("Product C");
+        product.setPrice(10.0);
+        product.setVersion(1L);
+        when(productRepository.findById(9L)).thenReturn(Optional.of(product));
+        mockMvc.perform(get("/api/products/9"))
+               .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        ProductChange updated = change(20L, ProductChange.Type.UPDATED, "{\"id\":9,\"name\":\"Product C\",\"price\":12.0,\"version\":2}");
+        updated.setProductId(9L);
+        updated.setVersion(2L);
+        when(productChangeRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenReturn(List.of(updated));
+        productChangeRelay.relay();
+
+        // The old ETag is checked against the database, and the next read loads the new row
+        when(productDAO.findVersionById(9L)).thenReturn(Optional.of(2L));
+        mockMvc.perform(get("/api/products/9").header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+               .andExpect(status().isOk());
+        verify(productRepository, times(2)).findById(9L);
+    }
+
+    @Test
+    void testRelaySkipsChangesMadeHere() throws Exception {
+        Product product = new Product();
+        product.setId(12L);
+        product.setName("Product D");
+        product.setPrice(10.0);
+        product.setVersion(1L);
+        when(productRepository.findById(12L)).thenReturn(Optional.of(product));
+        mockMvc.perform(get("/api/products/12"))
+               .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        // This instance applied its own change when it committed, and cached the product since
+        ProductChange updated = change(30L, ProductChange.Type.UPDATED, "{\"id\":12,\"name\":\"Product D\",\"price\":10.0,\"version\":1}");
+        updated.setProductId(12L);
+        updated.setVersion(1L);
+        updated.setOrigin(productChangeRelay.getOrigin());
+        when(productChangeRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenReturn(List.of(updated));
+        productChangeRelay.relay();
+
+        mockMvc.perform(get("/api/products/12"))
+               .andExpect(status().isOk());
+        verify(productRepository, times(1)).findById(12L);
+    }
+
+    private static ProductChange change(Long seq, ProductChange.Type type, String payload) {
+        ProductChange change = new ProductChange();
+        change.setId(seq);
+        change.setProductId(7L);
+        change.setType(type);
+        change.setVersion(0L);
+        change.setPayload(payload);
+        return change;
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains(expected), content);
+        return content;
     }
 }
@@ -0,0 +1,138 @@
+package com.uni.projectmanager.product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.uni.projectmanager.PostgresTestDatabase;
+
+/**
+ * Runs imports end to end against PostgreSQL, as COPY and the merge statement
+ * cannot be mocked. Product names are unique per test, as the database is shared.
+ */
+@SpringBootTest(properties = {
+    "products.snapshot.enabled=false",
+    "products.changes.poll-interval=PT1H"})
+class ProductImporterTest {
+
+    @Autowired
+    private ProductImporter productImporter;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    private ProductImportJob runImport(byte[] upload) throws Exception {
+        ProductImportJob job = productImporter.submit(new ByteArrayInputStream(upload));
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(job.isFinished(), "Import did not finish in time");
+        return job;
+    }
+
+    private Map<String, Object> productNamed(String name) {
+        return jdbcTemplate.queryForMap("SELECT id, name, price, version FROM products WHERE name = ?", name);
+    }
+
+    @Test
+    void testImportMergesRowsWritesOutboxAndReportsRejectedRows() throws Exception {
+        Product existing = new Product();
+        existing.setName("Import Existing");
+        existing.setPrice(1.0);
+        long existingId = productRepository.save(existing).getId();
+        long unknownId = 999_999_999_999L;
+
+        String csv = "id,name,price\n"
+                + existingId + ",Import Updated First,11.0\n"
+                + ",Import Created,5.5\n"
+                + existingId + ",Import Updated Last,12.5\n"
+                + unknownId + ",Import Unknown Id,7.0\n"
+                + ",,3.0\n"
+                + ",Import Bad Price,abc\n";
+        ProductImportJob job = runImport(csv.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(ProductImportJob.State.COMPLETED, job.getState(), job.getError());
+        assertEquals(6, job.getRowsRead());
+        assertEquals(2, job.getRowsRejected());
+        assertEquals(2, job.getCreated());
+        assertEquals(1, job.getUpdated());
+
+        // Repeated ids are merged once, with the last row's values
+        Map<String, Object> updated = productNamed("Import Updated Last");
+        assertEquals(existingId, ((Number) updated.get("id")).longValue());
+        assertEquals(12.5, ((Number) updated.get("price")).doubleValue());
+        assertEquals(1L, ((Number) updated.get("version")).longValue());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM products WHERE name = 'Import Updated First'", Integer.class));
+
+        // An unknown id is created under a generated one
+        Map<String, Object> unknown = productNamed("Import Unknown Id");
+        assertNotEquals(unknownId, ((Number) unknown.get("id")).longValue());
+        assertEquals(0L, ((Number) unknown.get("version")).longValue());
+        long createdId = ((Number) productNamed("Import Created").get("id")).longValue();
+
+        List<Map<String, Object>> changes = jdbcTemplate.queryForList(
+                "SELECT product_id, change_type, product_version, payload FROM product_changes"
+                        + " WHERE product_id IN (?, ?, ?) ORDER BY product_id",
+                existingId, createdId, ((Number) unknown.get("id")).longValue());
+        assertEquals(3, changes.size());
+        for (Map<String, Object> change : changes) {
+            long productId = ((Number) change.get("product_id")).longValue();
+            assertEquals(productId == existingId ? "UPDATED" : "CREATED", change.get("change_type"));
+            // jsonb renders its text with a space after each colon
+            String payload = (String) change.get("payload");
+            assertTrue(payload.contains("\"id\": " + productId), payload);
+        }
+
+        assertEquals(List.of("row,error", "5,\"name is missing\"", "6,\"price 'abc' is not a number\""),
+                Files.readAllLines(job.getErrorReport()));
+    }
+
+    @Test
+    void testImportReadsGzippedUploads() throws Exception {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write("name,price\nImport Gzipped,2.5\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        ProductImportJob job = runImport(gzipped.toByteArray());
+
+        assertEquals(ProductImportJob.State.COMPLETED, job.getState(), job.getError());
+        assertEquals(1, job.getCreated());
+        assertEquals(2.5, ((Number) productNamed("Import Gzipped").get("price")).doubleValue());
+    }
+
+    @Test
+    void testImportWithoutRequiredColumnsFailsAndChangesNothing() throws Exception {
+        ProductImportJob job = runImport("name,cost\nImport Without Price,1.0\n".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(ProductImportJob.State.FAILED, job.getState());
+        assertTrue(job.getError().contains("name and price"), job.getError());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM products WHERE name = 'Import Without Price'", Integer.class));
+    }
+}
@@ -0,0 +1,86 @@
+package com.uni.projectmanager.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class JwtAuthenticationFilterTest {
+
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+
+    @Test
+    void testValidTokenSetsSubject() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", "Bearer " + JwtUtil.generateToken("john@example.com"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals("john@example.com", request.getAttribute(JwtAuthenticationFilter.SUBJECT_ATTRIBUTE));
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void testInvalidTokenIsRejectedWhenEnforced() throws Exception {
+        ReflectionTestUtils.setField(filter, "enforce", true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", "Bearer not-a-token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void testInvalidTokenIsIgnoredWhenNotEnforced() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", "Bearer not-a-token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertNull(request.getAttribute(JwtAuthenticationFilter.SUBJECT_ATTRIBUTE));
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void testInvalidTokenIsIgnoredOnLoginWhenEnforced() throws Exception {
+        ReflectionTestUtils.setField(filter, "enforce", true);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users/login");
+        request.addHeader("Authorization", "Bearer not-a-token");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void testMissingTokenIsRejectedWhenEnforced() throws Exception {
+        ReflectionTestUtils.setField(filter, "enforce", true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/products"), response, chain);
+
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+
+        MockFilterChain loginChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/users/login"), new MockHttpServletResponse(), loginChain);
+
+        assertNotNull(loginChain.getRequest());
+    }
+}
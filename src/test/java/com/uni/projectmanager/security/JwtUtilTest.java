@@ -0,0 +1,51 @@
+package com.uni.projectmanager.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+class JwtUtilTest {
+
+    @Test
+    void testGenerateTokenIsReadableByJjwt() {
+        String token = JwtUtil.generateToken("john@example.com");
+
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(System.getenv("JWT_SECRET_KEY").getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+
+        assertEquals("john@example.com", claims.getSubject());
+        assertEquals(Long.parseLong(System.getenv("JWT_EXPIRATION_TIME")) / 1000,
+                (claims.getExpiration().getTime() - claims.getIssuedAt().getTime()) / 1000);
+    }
+
+    @Test
+    void testValidateTokenReturnsSubject() {
+        String token = JwtUtil.generateToken("jane\"doe\"@example.com");
+
+        // The second call is answered from the verified-token cache
+        assertEquals("jane\"doe\"@example.com", JwtUtil.validateToken(token));
+        assertEquals("jane\"doe\"@example.com", JwtUtil.validateToken(token));
+    }
+
+    @Test
+    void testValidateTokenRejectsTamperedToken() {
+        String token = JwtUtil.generateToken("john@example.com");
+        String[] parts = token.split("\\.");
+        String forgedClaims = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"admin@example.com\",\"exp\":9999999999}".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> JwtUtil.validateToken(parts[0] + "." + forgedClaims + "." + parts[2]));
+    }
+}
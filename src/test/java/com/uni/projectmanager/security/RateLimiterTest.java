@@ -0,0 +1,60 @@
+package com.uni.projectmanager.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+
+    @Test
+    void testBurstThenSustainedRate() {
+        RateLimiter limiter = new RateLimiter(3, 2, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("sub:a"));
+        }
+        long wait = limiter.tryAcquire("sub:a");
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), wait);
+
+        // Other clients have their own bucket
+        assertEquals(0, limiter.tryAcquire("ip:10.0.0.1"));
+
+        clock.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("sub:a"));
+        assertTrue(limiter.tryAcquire("sub:a") > 0);
+    }
+
+    @Test
+    void testRejectedRequestsDoNotConsumeTokens() {
+        RateLimiter limiter = new RateLimiter(1, 1, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("sub:a"));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("sub:a") > 0);
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, limiter.tryAcquire("sub:a"));
+    }
+
+    @Test
+    void testEvictsOnlyRefilledBuckets() {
+        RateLimiter limiter = new RateLimiter(10, 1, clock::get);
+        limiter.tryAcquire("sub:a");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        limiter.tryAcquire("sub:b");
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(1, limiter.size());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(0, limiter.size());
+    }
+}
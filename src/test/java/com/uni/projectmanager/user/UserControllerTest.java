@@ -3,11 +3,15 @@ package com.uni.projectmanager.user;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.util.Arrays;
+import java.util.Date;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -16,15 +20,31 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uni.projectmanager.dao.UserDAO;
+import com.uni.projectmanager.pagination.CursorPage;
+import com.uni.projectmanager.security.JwtUtil;
+import com.uni.projectmanager.security.PasswordHasher;
 import com.uni.projectmanager.user.User;
 import com.uni.projectmanager.user.UserController;
 
-@WebMvcTest(UserController.class)
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.security.Keys;
+
+// The lowest BCrypt cost keeps logins fast enough that the rate limit test's bucket does not refill midway
+@WebMvcTest(controllers = UserController.class, properties = "security.password.bcrypt-strength=4")
+@Import({UserServiceImpl.class, PasswordHasher.class, SimpleMeterRegistry.class})
 class UserControllerTest {
 
     @Autowired
@@ -36,6 +56,9 @@ class UserControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -63,6 +86,29 @@ class UserControllerTest {
                .andExpect(jsonPath("$[1].name").value("Jane Doe"));
     }
 
+    @Test
+    void testGetUsersPage() throws Exception {
+        // Arrange: Return one more row than requested so the page gets a next cursor
+        User user1 = new User();
+        user1.setId(1L);
+        user1.setName("John Doe");
+
+        User user2 = new User();
+        user2.setId(2L);
+        user2.setName("Jane Doe");
+
+        when(userDAO.findPage(null, 2)).thenReturn(Arrays.asList(user1, user2));
+        when(userDAO.estimateCount()).thenReturn(2L);
+
+        // Act & Assert: Perform GET request for the first page and verify the cursor
+        mockMvc.perform(get("/api/users").param("size", "1"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items.length()").value(1))
+               .andExpect(jsonPath("$.items[0].name").value("John Doe"))
+               .andExpect(jsonPath("$.nextCursor").value(CursorPage.encode(1L)))
+               .andExpect(jsonPath("$.approximateTotal").value(2));
+    }
+
     @Test
     void testGetUserById() throws Exception {
         // Arrange: Create a mock user and configure the DAO to return it
@@ -70,13 +116,25 @@ class UserControllerTest {
         user.setId(1L);
         user.setName("John Doe");
         user.setEmail("john@example.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuv");
 
         when(userDAO.findById(1L)).thenReturn(Optional.of(user));
 
         // Act & Assert: Perform GET request for a specific user and verify the response
         mockMvc.perform(get("/api/users/1"))
                .andExpect(status().isOk())
-               .andExpect(jsonPath("$.name").value("John Doe"));
+               .andExpect(jsonPath("$.name").value("John Doe"))
+               .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    @Test
+    void testGetUserByIdNotModified() throws Exception {
+        when(userDAO.findVersionById(1L)).thenReturn(Optional.of(2L));
+
+        mockMvc.perform(get("/api/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+               .andExpect(status().isNotModified());
+
+        verify(userDAO, never()).findById(1L);
     }
 
     @Test
@@ -91,32 +149,59 @@ class UserControllerTest {
         // Act & Assert: Perform POST request to create a user and verify the response
         mockMvc.perform(post("/api/users")
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(user)))
+                .content(credentials("john@example.com", "password123")))
                .andExpect(status().isOk())
-               .andExpect(jsonPath("$.name").value("John Doe"));
+               .andExpect(jsonPath("$.name").value("John Doe"))
+               .andExpect(jsonPath("$.password").doesNotExist());
     }
 
     @Test
-    void testUpdateUser() throws Exception {
-        // Arrange: Create an existing user and an updated user
-        User existingUser = new User();
-        existingUser.setId(1L);
-        existingUser.setName("John Doe");
-        existingUser.setEmail("john@example.com");
+    void testCreateUserWithTakenEmail() throws Exception {
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail("john@example.com");
+
+        doThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint \"users_email_key\""))
+                .when(userDAO).save(any(User.class));
+
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user)))
+               .andExpect(status().isConflict());
+    }
 
+    @Test
+    void testUpdateUser() throws Exception {
+        // Arrange: The DAO applies the update in one statement and returns the new row
         User updatedUser = new User();
+        updatedUser.setId(1L);
         updatedUser.setName("John Updated");
         updatedUser.setEmail("john.updated@example.com");
+        updatedUser.setVersion(1L);
 
-        when(userDAO.findById(1L)).thenReturn(Optional.of(existingUser));
-        doReturn(updatedUser).when(userDAO).save(any(User.class));
+        when(userDAO.update(eq(1L), isNull(), any(User.class), eq(false))).thenReturn(Optional.of(updatedUser));
 
         // Act & Assert: Perform PUT request to update the user and verify the response
         mockMvc.perform(put("/api/users/1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(updatedUser)))
                .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
                .andExpect(jsonPath("$.name").value("John Updated"));
+
+        verify(userDAO, never()).findById(1L);
+    }
+
+    @Test
+    void testPatchUserVersionConflict() throws Exception {
+        when(userDAO.update(eq(1L), eq(5L), any(User.class), eq(true)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+
+        mockMvc.perform(patch("/api/users/1")
+                .header(HttpHeaders.IF_MATCH, "\"5\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\": \"john.updated@example.com\"}"))
+               .andExpect(status().isConflict());
     }
 
     @Test
@@ -146,12 +231,104 @@ class UserControllerTest {
 
         when(userDAO.findByEmail("john@example.com")).thenReturn(Optional.of(user));
 
-        // Act & Assert: Perform POST request and verify the response
+        // Act & Assert: Perform POST request and verify the response is a token for the user
+        String token = mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(credentials("john@example.com", "password123")))
+               .andExpect(status().isOk())
+               .andReturn().getResponse().getContentAsString();
+
+        assertEquals("john@example.com", JwtUtil.validateToken(token));
+    }
+
+    @Test
+    void testLoginWithExpiredToken() throws Exception {
+        // Arrange: A client still sends the token from its previous session
+        User user = new User("John Doe", "john@example.com", "password123");
+        when(userDAO.findByEmail("john@example.com")).thenReturn(Optional.of(user));
+        String expired = Jwts.builder()
+                .setSubject("john@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(Keys.hmacShaKeyFor(System.getenv("JWT_SECRET_KEY").getBytes()))
+                .compact();
+
+        // Act & Assert: The stale token is ignored and a new one is issued
+        String token = mockMvc.perform(post("/api/users/login")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + expired)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(credentials("john@example.com", "password123")))
+               .andExpect(status().isOk())
+               .andReturn().getResponse().getContentAsString();
+
+        assertEquals("john@example.com", JwtUtil.validateToken(token));
+    }
+
+    @Test
+    void testLoginIsRateLimitedPerClient() throws Exception {
+        // Arrange: Unknown user; the limit applies whatever the outcome of the login
+        String body = credentials("nobody@example.com", "password123");
+
+        // Act & Assert: The login route allows a burst of 10 per address, then answers 429
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(post("/api/users/login").with(remoteAddr("10.1.1.1"))
+                    .contentType(MediaType.APPLICATION_JSON).content(body))
+                   .andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(post("/api/users/login").with(remoteAddr("10.1.1.1"))
+                .contentType(MediaType.APPLICATION_JSON).content(body))
+               .andExpect(status().isTooManyRequests())
+               .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+        // Another client is not affected
+        mockMvc.perform(post("/api/users/login").with(remoteAddr("10.1.1.2"))
+                .contentType(MediaType.APPLICATION_JSON).content(body))
+               .andExpect(status().isUnauthorized());
+    }
+
+    // User never serializes its password, so request bodies that carry one are written by hand
+    private static String credentials(String email, String password) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}";
+    }
+
+    private static RequestPostProcessor remoteAddr(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    @Test
+    void testLoginRehashesPlaintextPassword() throws Exception {
+        // Arrange: A user row written before passwords were hashed
+        User user = new User("John Doe", "john@example.com", "password123");
+        user.setId(1L);
+
+        when(userDAO.findByEmail("john@example.com")).thenReturn(Optional.of(user));
+
+        // Act & Assert: Login succeeds and the password is replaced with a BCrypt hash, without a versioned save
         mockMvc.perform(post("/api/users/login")
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(user)))
+                .content(credentials("john@example.com", "password123")))
+               .andExpect(status().isOk());
+
+        verify(userDAO).replacePassword(eq(1L), eq("password123"), argThat(hash -> hash.startsWith("$2")));
+        verify(userDAO, never()).save(any(User.class));
+    }
+
+    @Test
+    void testCreateUserHashesPassword() throws Exception {
+        // Arrange: Echo back whatever is saved
+        when(userDAO.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act & Assert: The stored password is no longer the plaintext, and is not in the response
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"John Doe\",\"email\":\"john@example.com\",\"password\":\"password123\"}"))
                .andExpect(status().isOk())
-               .andExpect(jsonPath("$.name").value("John Doe"));
+               .andExpect(jsonPath("$.email").value("john@example.com"))
+               .andExpect(jsonPath("$.password").doesNotExist());
+
+        verify(userDAO).save(argThat(saved -> saved.getPassword().startsWith("$2")));
     }
 
     @Test
@@ -162,11 +339,26 @@ class UserControllerTest {
         // Act & Assert: Perform POST request and verify the response
         mockMvc.perform(post("/api/users/login")
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(new User("invalid@example.com", "wrongpassword"))))
+                .content(credentials("invalid@example.com", "wrongpassword")))
                .andExpect(status().isUnauthorized())
                .andExpect(content().string("Invalid email or password"));
     }
 
+    @Test
+    void testLoginUnknownEmailStillChecksAPassword() throws Exception {
+        when(userDAO.findByEmail("invalid@example.com")).thenReturn(Optional.empty());
+        Timer verifications = meterRegistry.get("password.hash").tag("operation", "verify").timer();
+        long before = verifications.count();
+
+        mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(credentials("invalid@example.com", "wrongpassword")))
+               .andExpect(status().isUnauthorized());
+
+        // One BCrypt verification ran, as it would have for a known email
+        assertEquals(before + 1, verifications.count());
+    }
+
     @Test
     void testLoginMissingFields() throws Exception {
         // Act & Assert: Perform POST request with missing fields and verify the response